@@ -0,0 +1,108 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentEligibilityBenchmark {
+    @Param({"10", "10000"})
+    private int bookingsPerItem;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private ItemRepository itemRepository;
+    private TransactionTemplate transactionTemplate;
+    private long itemId;
+    private User author;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookingRepository = context.getBean(BookingRepository.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@mail.ru").build());
+        author = userRepository.save(User.builder().name("author").email("author@mail.ru").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+        itemId = item.getId();
+
+        LocalDateTime start = LocalDateTime.now().minusYears(5);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < bookingsPerItem; i++) {
+            bookings.add(Booking.builder()
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i).plusMinutes(30))
+                    .item(item)
+                    .booker(booker)
+                    .status(Status.APPROVED)
+                    .build());
+        }
+        bookings.add(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item)
+                .booker(author)
+                .status(Status.APPROVED)
+                .build());
+        bookingRepository.saveAll(bookings);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean existsCompletedRental() {
+        return bookingRepository.existsCompletedRental(author.getId(), itemId, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public Boolean scanItemBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> itemRepository.findById(itemId).orElseThrow()
+                .getBookings()
+                .stream()
+                .anyMatch(booking -> booking.getBooker().equals(author)
+                        && booking.getEnd().isBefore(now)
+                        && booking.getStatus() == Status.APPROVED));
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.mapper.BookingMapper;
+import ru.practicum.shareit.mapper.CommentMapper;
+import ru.practicum.shareit.mapper.ItemMapper;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private static final int COMMENTS = 10;
+
+    private Item item;
+    private Booking lastBooking;
+    private Booking nextBooking;
+    private List<Comment> comments;
+    private Comment comment;
+
+    @Setup
+    public void setUp() {
+        User owner = User.builder().id(1L).name("owner").email("owner@mail.ru").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@mail.ru").build();
+        item = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .owner(owner)
+                .build();
+
+        LocalDateTime now = LocalDateTime.now();
+        lastBooking = Booking.builder()
+                .id(1L)
+                .start(now.minusDays(2))
+                .end(now.minusDays(1))
+                .item(item)
+                .booker(booker)
+                .status(Status.APPROVED)
+                .build();
+        nextBooking = lastBooking.toBuilder()
+                .id(2L)
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .build();
+
+        comments = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            comments.add(Comment.builder()
+                    .id(i + 1)
+                    .text("Отличная дрель " + i)
+                    .created(now.minusDays(i))
+                    .item(item)
+                    .author(booker)
+                    .build());
+        }
+        comment = comments.get(0);
+    }
+
+    @Benchmark
+    public ItemDto itemWithBookings() {
+        return ItemMapper.toItemDtoWithBookingsFromItem(item, lastBooking, nextBooking, comments);
+    }
+
+    @Benchmark
+    public BookingDto booking() {
+        return BookingMapper.toBookingDtoFromBooking(lastBooking);
+    }
+
+    @Benchmark
+    public CommentDto comment() {
+        return CommentMapper.toCommentDtoFromComment(comment);
+    }
+}
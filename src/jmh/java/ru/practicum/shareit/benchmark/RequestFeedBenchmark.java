@@ -0,0 +1,93 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestFeedBenchmark {
+    private static final int REQUESTS = 1_000_000;
+    private static final int SIZE = 10;
+    private static final int PAGES = 16;
+
+    @Param({"0", "500000", "999840"})
+    private int from;
+
+    private ConfigurableApplicationContext context;
+    private ItemRequestService itemRequestService;
+    private long viewerId;
+    private ItemRequestCursor[] cursors;
+    private int page;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        itemRequestService = context.getBean(ItemRequestService.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User requester = userRepository.save(User.builder().name("requester").email("requester@mail.ru").build());
+        viewerId = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build()).getId();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO requests (id, description, requester_id, created) "
+                        + "SELECT X, 'Нужна дрель ' || X, ?, DATEADD('SECOND', -X / 2, TIMESTAMP '2030-01-01 00:00:00') "
+                        + "FROM SYSTEM_RANGE(1, ?)", requester.getId(), REQUESTS);
+        jdbcTemplate.execute("ANALYZE");
+
+        cursors = new ItemRequestCursor[PAGES];
+        for (int i = 0; i < PAGES; i++) {
+            int offset = from + i * SIZE;
+            cursors[i] = offset == 0
+                    ? new ItemRequestCursor(LocalDateTime.of(3000, 1, 1, 0, 0), Long.MAX_VALUE)
+                    : jdbcTemplate.queryForObject("SELECT created, id FROM requests ORDER BY created DESC, id DESC "
+                            + "OFFSET ? ROWS FETCH NEXT 1 ROWS ONLY",
+                    (rs, rowNum) -> new ItemRequestCursor(rs.getTimestamp("created").toLocalDateTime(),
+                            rs.getLong("id")), offset - 1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> offsetPage() {
+        return itemRequestService.getUserRequestsById(viewerId, from + nextPage() * SIZE, SIZE);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> keysetPage() {
+        return itemRequestService.getUserRequestsById(viewerId, cursors[nextPage()], SIZE);
+    }
+
+    private int nextPage() {
+        page = (page + 1) % PAGES;
+        return page;
+    }
+}
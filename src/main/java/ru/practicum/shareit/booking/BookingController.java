@@ -1,17 +1,26 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateUpdateBookingDto;
 import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.service.BookingExporter;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.validator.ValuesAllowedConstraint;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
 import java.util.List;
 
 import static ru.practicum.shareit.util.Constant.REQUEST_HEADER_USER_ID;
@@ -21,7 +30,10 @@ import static ru.practicum.shareit.util.Constant.REQUEST_HEADER_USER_ID;
 @RequiredArgsConstructor
 @Validated
 public class BookingController {
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final BookingService bookingService;
+    private final BookingExporter bookingExporter;
 
     @PostMapping
     public BookingDto createBooking(@RequestHeader(REQUEST_HEADER_USER_ID) Long userId,
@@ -42,6 +54,14 @@ public class BookingController {
         return bookingService.confirmedBooking(userId, bookingId, approved);
     }
 
+    //подтверждение нескольких броней одним запросом
+    @PatchMapping("/batch")
+    public List<BookingDecisionResultDto> confirmedBookings(@RequestHeader(REQUEST_HEADER_USER_ID) Long userId,
+                                                            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                            List<@Valid BookingDecisionDto> decisions) {
+        return bookingService.confirmedBookings(userId, decisions);
+    }
+
     @GetMapping
     public List<BookingDto> getBookingsOfUser(@RequestHeader(REQUEST_HEADER_USER_ID) Long userId,
                                               @ValuesAllowedConstraint(propName = "state",
@@ -54,10 +74,29 @@ public class BookingController {
                                                       message = "Unknown state: UNSUPPORTED_STATUS")
                                               @RequestParam(defaultValue = "all") String state,
                                               @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                              @RequestParam(defaultValue = "20") @Positive int size) {
+                                              @RequestParam(defaultValue = "20") @Positive int size,
+                                              @RequestParam(required = false) String after) {
+        if (after != null) {
+            return bookingService.getBookingsOfBooker(State.valueOf(state.toUpperCase()), userId,
+                    BookingCursor.parse(after), size);
+        }
         return bookingService.getBookingsOfBooker(State.valueOf(state.toUpperCase()), userId, from, size);
     }
 
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBookingsOfBooker(@RequestHeader(REQUEST_HEADER_USER_ID) Long userId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookingExporter.exportBookingsOfBooker(userId));
+    }
+
+    @GetMapping(path = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBookingsOfOwner(@RequestHeader(REQUEST_HEADER_USER_ID) Long userId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookingExporter.exportBookingsOfOwner(userId));
+    }
+
     @GetMapping("/owner")
     public List<BookingDto> getBookingsOfOwner(@RequestHeader(REQUEST_HEADER_USER_ID) Long userId,
                                                @ValuesAllowedConstraint(propName = "state",
@@ -70,7 +109,12 @@ public class BookingController {
                                                        message = "Unknown state: UNSUPPORTED_STATUS")
                                                @RequestParam(defaultValue = "all") String state,
                                                @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                               @RequestParam(defaultValue = "20") @Positive int size) {
+                                               @RequestParam(defaultValue = "20") @Positive int size,
+                                               @RequestParam(required = false) String after) {
+        if (after != null) {
+            return bookingService.getBookingsOfOwner(State.valueOf(state.toUpperCase()), userId,
+                    BookingCursor.parse(after), size);
+        }
         return bookingService.getBookingsOfOwner(State.valueOf(state.toUpperCase()), userId, from, size);
     }
 
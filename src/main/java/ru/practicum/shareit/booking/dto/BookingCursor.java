@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.util.Cursors;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BookingCursor {
+    private LocalDateTime start;
+    private Long id;
+
+    public static BookingCursor parse(String token) {
+        return Cursors.parse(token, BookingCursor::new);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,7 +11,7 @@ import ru.practicum.shareit.user.dto.GetBookingUserDto;
 import java.time.LocalDateTime;
 
 @Data
-@AllArgsConstructor
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
 @Builder(toBuilder = true)
 public class BookingDto {
     private Long id;
@@ -19,4 +20,11 @@ public class BookingDto {
     private Status status;
     private GetBookingUserDto booker;
     private GetBookingForItemDto item;
+
+    public BookingDto(Long id, LocalDateTime start, LocalDateTime end, Status status,
+                      Long bookerId, Long itemId, String itemName) {
+        this(id, start, end, status,
+                GetBookingUserDto.builder().id(bookerId).build(),
+                GetBookingForItemDto.builder().id(itemId).name(itemName).build());
+    }
 }
@@ -9,14 +9,19 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings", schema = "public")
-@EqualsAndHashCode(exclude = {"start", "end", "item", "booker", "status"})
+@NamedEntityGraph(name = "Booking.details",
+        attributeNodes = {@NamedAttributeNode(value = "item", subgraph = "item"), @NamedAttributeNode("booker")},
+        subgraphs = @NamedSubgraph(name = "item",
+                attributeNodes = {@NamedAttributeNode("owner"), @NamedAttributeNode("request")}))
+@EqualsAndHashCode(exclude = {"start", "end", "item", "booker", "status", "version"})
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder(toBuilder = true)
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -36,6 +41,9 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     private Status status;
 
+    @Version
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -75,4 +83,8 @@ public class Booking {
     public void setStatus(Status status) {
         this.status = status;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
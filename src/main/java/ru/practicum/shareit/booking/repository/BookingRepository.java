@@ -1,50 +1,93 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingPeriodView;
+import ru.practicum.shareit.booking.dto.BookingStatusView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.config.CacheConfig;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
-    List<Booking> findAllByBookerId(long bookerId, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @Override
+    @EntityGraph("Booking.details")
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findAllByBookerIdAndStatus(long bookerId, Status status, Pageable pageable);
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(value = "select b from Booking b join fetch b.item as i join fetch i.owner left join fetch i.request " +
+            " join fetch b.booker as u where u.id = ?1 order by b.start desc, b.id desc")
+    Stream<Booking> streamAllByBookerId(Long bookerId);
 
-    List<Booking> findAllByBookerIdAndStartAfter(long bookerId, LocalDateTime start, Pageable pageable);
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(value = "select b from Booking b join fetch b.item as i join fetch i.owner as o left join fetch i.request " +
+            " join fetch b.booker where o.id = ?1 order by b.start desc, b.id desc")
+    Stream<Booking> streamAllByOwnerId(Long ownerId);
 
-    List<Booking> findAllByBookerIdAndEndBefore(long bookerId, LocalDateTime end, Pageable pageable);
+    @Query(value = "select case when count(b) > 0 then true else false end from Booking b " +
+            " where b.item.id = :itemId and b.status = 'APPROVED' and b.start < :end and b.end > :start")
+    boolean existsApprovedOverlap(@Param("itemId") Long itemId, @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end);
 
-    @Query(value = "select b from Booking b where b.booker.id = ?1 and b.start < ?2 and b.end > ?2 order by b.start desc")
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfter(long bookerId, LocalDateTime dateTime, Pageable pageable);
 
-    @Query(value = "select b from Booking b join fetch b.item as i join fetch i.owner as o " +
-            " where o.id = :ownerId")
-    List<Booking> findAllByOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+    @Cacheable(cacheNames = CacheConfig.COMPLETED_RENTALS_CACHE, key = "{#p0, #p1}", unless = "!#result")
+    @Query(value = "select case when count(b) > 0 then true else false end from Booking b " +
+            " where b.booker.id = :bookerId and b.item.id = :itemId and b.status = 'APPROVED' and b.end < :now")
+    boolean existsCompletedRental(@Param("bookerId") Long bookerId, @Param("itemId") Long itemId,
+                                  @Param("now") LocalDateTime now);
 
-    @Query(value = "select b from Booking b join fetch b.item as i join fetch i.owner as o " +
-            " where o.id = :ownerId and b.status = :status")
-    List<Booking> findAllByOwnerIdAndStatus(@Param("ownerId") Long ownerId, @Param("status") Status status, Pageable pageable);
+    @Query(value = "select b.status from Booking b where b.id = ?1")
+    Optional<Status> findStatusById(Long bookingId);
 
-    @Query(value = "select b from Booking b join fetch b.item as i join fetch i.owner as o " +
-            " where o.id = :ownerId and b.start > :dateTime")
-    List<Booking> findAllByOwnerIdAndStartAfter(@Param("ownerId") Long ownerId,
-                                                @Param("dateTime") LocalDateTime dateTime, Pageable pageable);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update Booking b set b.status = :status, b.version = b.version + 1 " +
+            " where b.id = :bookingId and b.version = :version")
+    int updateStatusIfVersion(@Param("bookingId") Long bookingId, @Param("version") Long version,
+                              @Param("status") Status status);
 
-    @Query(value = "select b from Booking b join fetch b.item as i join fetch i.owner as o " +
-            " where o.id = :ownerId and b.end < :dateTime")
-    List<Booking> findAllByOwnerIdAndEndBefore(@Param("ownerId") Long ownerId,
-                                               @Param("dateTime") LocalDateTime dateTime, Pageable pageable);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update Booking b set b.status = :status, b.version = b.version + 1 " +
+            " where b.id in :bookingIds and b.version = :version")
+    int updateStatusByIdInAndVersion(@Param("bookingIds") Collection<Long> bookingIds, @Param("version") Long version,
+                                     @Param("status") Status status);
 
-    @Query(value = "select b from Booking b join fetch b.item as i join fetch i.owner as o " +
-            " where o.id = :ownerId and b.start < :dateTime and b.end > :dateTime")
-    List<Booking> findAllByOwnerIdAndStartBeforeAndEndAfter(@Param("ownerId") Long ownerId,
-                                                            @Param("dateTime") LocalDateTime dateTime,
-                                                            Pageable pageable);
+    @Query(value = "select b.id as id, b.status as status, b.version as version from Booking b where b.id in ?1")
+    List<BookingStatusView> findStatusesByIdIn(Collection<Long> bookingIds);
 
+    @Query(value = "select b from Booking b join fetch b.item as i where b.id in ?1 and i.owner.id = ?2")
+    List<Booking> findAllByIdInAndOwnerId(Collection<Long> bookingIds, Long ownerId);
+
+    @Query(value = "select b.id as id, b.item.id as itemId, b.start as start, b.end as end from Booking b " +
+            " where b.item.id = ?1 and b.status = 'APPROVED'")
+    List<BookingPeriodView> findApprovedPeriodsByItemId(Long itemId);
+
+    @Query(value = "select b.id as id, b.item.id as itemId, b.start as start, b.end as end from Booking b " +
+            " where b.item.id in ?1 and b.status = 'APPROVED'")
+    List<BookingPeriodView> findApprovedPeriodsByItemIdIn(Collection<Long> itemIds);
+
+    @Query(value = "select id, start_date, end_date, item_id, booker_id, status, version from (" +
+            " select b.*, row_number() over (partition by b.item_id order by b.start_date desc) as rn" +
+            " from bookings b where b.item_id in (:itemIds) and b.status = 'APPROVED' and b.start_date < :now" +
+            ") as past where past.rn = 1" +
+            " union all " +
+            "select id, start_date, end_date, item_id, booker_id, status, version from (" +
+            " select b.*, row_number() over (partition by b.item_id order by b.start_date asc) as rn" +
+            " from bookings b where b.item_id in (:itemIds) and b.status = 'APPROVED' and b.start_date > :now" +
+            ") as future where future.rn = 1", nativeQuery = true)
+    List<Booking> findLastAndNextApprovedByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                                    @Param("now") LocalDateTime now);
 }
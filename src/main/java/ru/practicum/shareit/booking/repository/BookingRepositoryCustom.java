@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.State;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    List<BookingDto> findAllByBookerId(long bookerId, State state, LocalDateTime now, Pageable pageable);
+
+    List<BookingDto> findAllByOwnerId(long ownerId, State state, LocalDateTime now, Pageable pageable);
+
+    List<BookingDto> findAllByBookerIdAfter(long bookerId, State state, LocalDateTime now, BookingCursor after, int size);
+
+    List<BookingDto> findAllByOwnerIdAfter(long ownerId, State state, LocalDateTime now, BookingCursor after, int size);
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDto> findAllByBookerId(long bookerId, State state, LocalDateTime now, Pageable pageable) {
+        return findAll(false, bookerId, state, now, null, pageable.getOffset(), pageable.getPageSize());
+    }
+
+    @Override
+    public List<BookingDto> findAllByOwnerId(long ownerId, State state, LocalDateTime now, Pageable pageable) {
+        return findAll(true, ownerId, state, now, null, pageable.getOffset(), pageable.getPageSize());
+    }
+
+    @Override
+    public List<BookingDto> findAllByBookerIdAfter(long bookerId, State state, LocalDateTime now,
+                                                BookingCursor after, int size) {
+        return findAll(false, bookerId, state, now, after, 0, size);
+    }
+
+    @Override
+    public List<BookingDto> findAllByOwnerIdAfter(long ownerId, State state, LocalDateTime now,
+                                               BookingCursor after, int size) {
+        return findAll(true, ownerId, state, now, after, 0, size);
+    }
+
+    private List<BookingDto> findAll(boolean byOwner, long userId, State state, LocalDateTime now,
+                                     BookingCursor after, long offset, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingDto> query = cb.createQuery(BookingDto.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item", JoinType.INNER);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (byOwner) {
+            predicates.add(cb.equal(item.get("owner").get("id"), userId));
+        } else {
+            predicates.add(cb.equal(booking.get("booker").get("id"), userId));
+        }
+
+        switch (state) {
+            case CURRENT:
+                predicates.add(cb.lessThan(booking.get("start"), now));
+                predicates.add(cb.greaterThan(booking.get("end"), now));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(booking.get("end"), now));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(booking.get("start"), now));
+                break;
+            case WAITING:
+                predicates.add(cb.equal(booking.get("status"), Status.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), Status.REJECTED));
+                break;
+            default:
+                break;
+        }
+
+        if (after != null) {
+            predicates.add(cb.lessThanOrEqualTo(booking.get("start"), after.getStart()));
+            predicates.add(cb.or(
+                    cb.lessThan(booking.get("start"), after.getStart()),
+                    cb.lessThan(booking.get("id"), after.getId())));
+        }
+
+        query.select(cb.construct(BookingDto.class, booking.get("id"), booking.get("start"), booking.get("end"),
+                        booking.get("status"), booking.get("booker").get("id"), item.get("id"), item.get("name")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(booking.get("start")), cb.desc(booking.get("id")));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(size)
+                .getResultList();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingPeriodView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.util.IntervalTree;
+import ru.practicum.shareit.util.TransactionCallbacks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+public class BookingAvailabilityIndex {
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, IntervalTree> trees;
+
+    public BookingAvailabilityIndex(BookingRepository bookingRepository,
+                                    @Value("${shareit.bookings.availability.max-items:10000}") long maxItems,
+                                    @Value("${shareit.bookings.availability.ttl:10m}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.trees = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    public boolean isBooked(long itemId, LocalDateTime from, LocalDateTime to) {
+        IntervalTree tree = tree(itemId);
+        synchronized (tree) {
+            return tree.overlaps(from, to);
+        }
+    }
+
+    public List<IntervalTree.Interval> findBooked(long itemId, LocalDateTime from, LocalDateTime to) {
+        IntervalTree tree = tree(itemId);
+        synchronized (tree) {
+            return tree.find(from, to);
+        }
+    }
+
+    public void addApproved(long itemId, long bookingId, LocalDateTime start, LocalDateTime end) {
+        TransactionCallbacks.afterCommit(() -> {
+            IntervalTree tree = trees.getIfPresent(itemId);
+            if (tree != null) {
+                synchronized (tree) {
+                    tree.add(bookingId, start, end);
+                }
+            }
+        });
+    }
+
+    public void evictItem(long itemId) {
+        TransactionCallbacks.afterCommit(() -> trees.invalidate(itemId));
+    }
+
+    public void evictAll() {
+        TransactionCallbacks.afterCommit(trees::invalidateAll);
+    }
+
+    private IntervalTree tree(long itemId) {
+        return trees.get(itemId, this::load);
+    }
+
+    private IntervalTree load(long itemId) {
+        IntervalTree tree = new IntervalTree();
+        for (BookingPeriodView period : bookingRepository.findApprovedPeriodsByItemId(itemId)) {
+            tree.add(period.getId(), period.getStart(), period.getEnd());
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.mapper.BookingMapper;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Component
+public class BookingExporter {
+    private static final int CHUNK_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookingExporter(BookingRepository bookingRepository, UserRepository userRepository,
+                           ObjectMapper objectMapper, EntityManager entityManager,
+                           PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public StreamingResponseBody exportBookingsOfBooker(Long bookerId) {
+        checkUserExists(bookerId);
+        return out -> write(() -> bookingRepository.streamAllByBookerId(bookerId), out);
+    }
+
+    public StreamingResponseBody exportBookingsOfOwner(Long ownerId) {
+        checkUserExists(ownerId);
+        return out -> write(() -> bookingRepository.streamAllByOwnerId(ownerId), out);
+    }
+
+    private void write(Supplier<Stream<Booking>> query, OutputStream out) throws IOException {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Booking> bookings = query.get()) {
+                    int written = 0;
+                    Iterator<Booking> iterator = bookings.iterator();
+                    while (iterator.hasNext()) {
+                        out.write(objectMapper.writeValueAsBytes(BookingMapper.toBookingDtoFromBooking(iterator.next())));
+                        out.write('\n');
+                        if (++written % CHUNK_SIZE == 0) {
+                            entityManager.clear();
+                            out.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException(String.format("User with id %d not found", userId));
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateUpdateBookingDto;
 import ru.practicum.shareit.booking.model.State;
@@ -12,10 +15,16 @@ public interface BookingService {
 
     BookingDto confirmedBooking(Long userId, Long bookingId, boolean approved);
 
+    List<BookingDecisionResultDto> confirmedBookings(Long userId, List<BookingDecisionDto> decisions);
+
     BookingDto getById(Long userId, Long bookingId);
 
     List<BookingDto> getBookingsOfBooker(State state, Long bookerId, int from, int size);
 
     List<BookingDto> getBookingsOfOwner(State state, Long userId, int from, int size);
 
+    List<BookingDto> getBookingsOfBooker(State state, Long bookerId, BookingCursor after, int size);
+
+    List<BookingDto> getBookingsOfOwner(State state, Long userId, BookingCursor after, int size);
+
 }
@@ -1,16 +1,22 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPeriodView;
+import ru.practicum.shareit.booking.dto.BookingStatusView;
 import ru.practicum.shareit.booking.dto.CreateUpdateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.AlreadyExistedException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ShareItValidationException;
 import ru.practicum.shareit.item.model.Item;
@@ -18,9 +24,17 @@ import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.mapper.BookingMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.IntervalTree;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,12 +44,13 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingAvailabilityIndex availabilityIndex;
 
     @Override
     public BookingDto createBooking(Long userId, CreateUpdateBookingDto createUpdateBookingDto) {
         User user = getUserById(userId);
 
-        Item item = getItemById(createUpdateBookingDto.getItemId());
+        Item item = getItemForUpdate(createUpdateBookingDto.getItemId());
 
         if (item.getOwner().getId().equals(userId)) {
             throw new NotFoundException("Владелей вещи не может забронировать свою вещь.");
@@ -52,6 +67,8 @@ public class BookingServiceImpl implements BookingService {
             throw new ShareItValidationException("Бронирование недоступно");
         }
 
+        checkNoApprovedOverlap(item.getId(), start, end);
+
         Booking booking = BookingMapper.toBookingFromCreateUpdateBookingDto(createUpdateBookingDto);
         booking.setBooker(user);
         booking.setItem(item);
@@ -62,26 +79,82 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public BookingDto confirmedBooking(Long userId, Long bookingId, boolean approved) {
-        User user = getUserById(userId);
+        checkUserExists(userId);
         Booking booking = getBookingById(bookingId);
 
-        if (!booking.getItem().getOwner().equals(user)) {
+        if (!booking.getItem().getOwner().getId().equals(userId)) {
             throw new NotFoundException("Бронирование не найдено.");
         }
 
-        if (booking.getStatus().equals(Status.APPROVED)) {
-            throw new ShareItValidationException("Бронирование недоступно.");
+        checkNotApproved(booking.getStatus());
+
+        if (approved) {
+            getItemForUpdate(booking.getItem().getId());
+            checkNoApprovedOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd());
         }
 
-        booking.setStatus(approved ? Status.APPROVED : Status.REJECTED);
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        updateStatus(booking, status);
 
-        return BookingMapper.toBookingDtoFromBooking(bookingRepository.save(booking));
+        if (approved) {
+            availabilityIndex.addApproved(booking.getItem().getId(), booking.getId(),
+                    booking.getStart(), booking.getEnd());
+        }
+
+        return BookingMapper.toBookingDtoFromBooking(booking.toBuilder().status(status).build());
+    }
+
+    @Override
+    public List<BookingDecisionResultDto> confirmedBookings(Long userId, List<BookingDecisionDto> decisions) {
+        checkUserExists(userId);
+
+        Map<Long, BookingDecisionDto> uniqueDecisions = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            uniqueDecisions.putIfAbsent(decision.getBookingId(), decision);
+        }
+
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdInAndOwnerId(uniqueDecisions.keySet(), userId)
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        Map<Long, String> errors = new HashMap<>();
+        List<Booking> approvals = new ArrayList<>();
+        List<Booking> rejections = new ArrayList<>();
+        for (BookingDecisionDto decision : uniqueDecisions.values()) {
+            Booking booking = bookings.get(decision.getBookingId());
+            if (booking == null) {
+                errors.put(decision.getBookingId(), "Бронирование не найдено.");
+            } else if (booking.getStatus() == Status.APPROVED) {
+                errors.put(decision.getBookingId(), "Бронирование недоступно.");
+            } else if (decision.getApproved()) {
+                approvals.add(booking);
+            } else {
+                rejections.add(booking);
+            }
+        }
+
+        approveAll(approvals, errors);
+        rejectAll(rejections, errors);
+
+        List<BookingDecisionResultDto> results = new ArrayList<>(decisions.size());
+        for (BookingDecisionDto decision : decisions) {
+            Long bookingId = decision.getBookingId();
+            if (uniqueDecisions.get(bookingId) != decision) {
+                results.add(new BookingDecisionResultDto(bookingId, null, "Бронирование повторяется в запросе."));
+            } else if (errors.containsKey(bookingId)) {
+                results.add(new BookingDecisionResultDto(bookingId, null, errors.get(bookingId)));
+            } else {
+                results.add(new BookingDecisionResultDto(bookingId,
+                        decision.getApproved() ? Status.APPROVED : Status.REJECTED, null));
+            }
+        }
+        return results;
     }
 
     @Override
     @Transactional(readOnly = true)
     public BookingDto getById(Long userId, Long bookingId) {
-        getUserById(userId);
+        checkUserExists(userId);
         Booking booking = getBookingById(bookingId);
 
         if (!booking.getBooker().getId().equals(userId) && !booking.getItem().getOwner().getId().equals(userId)) {
@@ -95,76 +168,157 @@ public class BookingServiceImpl implements BookingService {
     @Override
     @Transactional(readOnly = true)
     public List<BookingDto> getBookingsOfBooker(State state, Long bookerId, int from, int size) {
-        getUserById(bookerId);
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        List<Booking> bookings;
-        switch (state) {
-            case WAITING:
-                bookings = bookingRepository.findAllByBookerIdAndStatus(bookerId, Status.WAITING, PageRequest.of(from / size, size, sort));
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findAllByBookerIdAndStatus(bookerId, Status.REJECTED, PageRequest.of(from / size, size, sort));
-                break;
-            case PAST:
-                bookings = bookingRepository.findAllByBookerIdAndEndBefore(bookerId, LocalDateTime.now(), PageRequest.of(from / size, size, sort));
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findAllByBookerIdAndStartAfter(bookerId, LocalDateTime.now(), PageRequest.of(from / size, size, sort));
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(bookerId, LocalDateTime.now(), PageRequest.of(from / size, size, sort));
-                break;
-            default:
-                bookings = bookingRepository.findAllByBookerId(bookerId, PageRequest.of(from / size, size, sort));
-        }
-
-        return bookings
-                .stream()
-                .map(BookingMapper::toBookingDtoFromBooking)
-                .collect(Collectors.toList());
+        checkUserExists(bookerId);
+
+        return bookingRepository.findAllByBookerId(bookerId, state, LocalDateTime.now(), PageRequest.of(from / size, size));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BookingDto> getBookingsOfOwner(State state, Long ownerId, int from, int size) {
-        getUserById(ownerId);
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        List<Booking> bookings;
-        switch (state) {
-            case WAITING:
-                bookings = bookingRepository.findAllByOwnerIdAndStatus(ownerId, Status.WAITING, PageRequest.of(from / size, size, sort));
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findAllByOwnerIdAndStatus(ownerId, Status.REJECTED, PageRequest.of(from / size, size, sort));
-                break;
-            case PAST:
-                bookings = bookingRepository.findAllByOwnerIdAndEndBefore(ownerId, LocalDateTime.now(), PageRequest.of(from / size, size, sort));
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findAllByOwnerIdAndStartAfter(ownerId, LocalDateTime.now(), PageRequest.of(from / size, size, sort));
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findAllByOwnerIdAndStartBeforeAndEndAfter(ownerId, LocalDateTime.now(), PageRequest.of(from / size, size, sort));
-                break;
-            default:
-                bookings = bookingRepository.findAllByOwnerId(ownerId, PageRequest.of(from / size, size, sort));
-        }
-        return bookings
-                .stream()
-                .map(BookingMapper::toBookingDtoFromBooking)
-                .collect(Collectors.toList());
+        checkUserExists(ownerId);
+
+        return bookingRepository.findAllByOwnerId(ownerId, state, LocalDateTime.now(), PageRequest.of(from / size, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingDto> getBookingsOfBooker(State state, Long bookerId, BookingCursor after, int size) {
+        checkUserExists(bookerId);
+
+        return bookingRepository.findAllByBookerIdAfter(bookerId, state, LocalDateTime.now(), after, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingDto> getBookingsOfOwner(State state, Long ownerId, BookingCursor after, int size) {
+        checkUserExists(ownerId);
+
+        return bookingRepository.findAllByOwnerIdAfter(ownerId, state, LocalDateTime.now(), after, size);
     }
 
     private User getUserById(Long userId) {
-        return userRepository.findById(userId)
+        return userRepository.findCachedById(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("User with id %d not found", userId)));
     }
 
-    private Item getItemById(Long itemId) {
-        return itemRepository.findById(itemId)
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException(String.format("User with id %d not found", userId));
+        }
+    }
+
+    private Item getItemForUpdate(Long itemId) {
+        return itemRepository.findByIdForUpdate(itemId)
                 .orElseThrow(() -> new NotFoundException(String.format("Item with id %d not found", itemId)));
     }
 
+    private void checkNoApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (availabilityIndex.isBooked(itemId, start, end)
+                || bookingRepository.existsApprovedOverlap(itemId, start, end)) {
+            throw new AlreadyExistedException("Вещь уже забронирована на это время.");
+        }
+    }
+
+    private void approveAll(List<Booking> approvals, Map<Long, String> errors) {
+        if (approvals.isEmpty()) {
+            return;
+        }
+
+        Set<Long> itemIds = approvals.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        itemRepository.findAllByIdInForUpdate(itemIds);
+
+        Map<Long, IntervalTree> approvedPeriods = new HashMap<>();
+        Set<Long> approvedIds = new HashSet<>();
+        for (BookingPeriodView period : bookingRepository.findApprovedPeriodsByItemIdIn(itemIds)) {
+            approvedPeriods.computeIfAbsent(period.getItemId(), id -> new IntervalTree())
+                    .add(period.getId(), period.getStart(), period.getEnd());
+            approvedIds.add(period.getId());
+        }
+
+        List<Booking> accepted = new ArrayList<>();
+        for (Booking booking : approvals) {
+            IntervalTree periods = approvedPeriods.computeIfAbsent(booking.getItem().getId(), id -> new IntervalTree());
+            if (approvedIds.contains(booking.getId())) {
+                errors.put(booking.getId(), "Бронирование недоступно.");
+            } else if (periods.overlaps(booking.getStart(), booking.getEnd())) {
+                errors.put(booking.getId(), "Вещь уже забронирована на это время.");
+            } else {
+                periods.add(booking.getId(), booking.getStart(), booking.getEnd());
+                accepted.add(booking);
+            }
+        }
+
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        updateStatuses(accepted, Status.APPROVED, errors);
+        for (Booking booking : accepted) {
+            if (!errors.containsKey(booking.getId())) {
+                availabilityIndex.addApproved(booking.getItem().getId(), booking.getId(),
+                        booking.getStart(), booking.getEnd());
+            }
+        }
+    }
+
+    private void rejectAll(List<Booking> rejections, Map<Long, String> errors) {
+        if (rejections.isEmpty()) {
+            return;
+        }
+
+        updateStatuses(rejections, Status.REJECTED, errors);
+    }
+
+    private void updateStatuses(List<Booking> bookings, Status status, Map<Long, String> errors) {
+        Map<Long, List<Long>> idsByVersion = bookings.stream()
+                .collect(Collectors.groupingBy(Booking::getVersion,
+                        Collectors.mapping(Booking::getId, Collectors.toList())));
+        int updated = 0;
+        for (Map.Entry<Long, List<Long>> ids : idsByVersion.entrySet()) {
+            updated += bookingRepository.updateStatusByIdInAndVersion(ids.getValue(), ids.getKey(), status);
+        }
+        if (updated == bookings.size()) {
+            return;
+        }
+
+        Map<Long, BookingStatusView> current = bookingRepository.findStatusesByIdIn(bookings.stream()
+                        .map(Booking::getId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(BookingStatusView::getId, Function.identity()));
+        for (Booking booking : bookings) {
+            BookingStatusView view = current.get(booking.getId());
+            if (view == null) {
+                errors.put(booking.getId(), "Бронирование не найдено.");
+            } else if (view.getStatus() == status && view.getVersion() == booking.getVersion() + 1) {
+                continue;
+            } else if (view.getStatus() == Status.APPROVED) {
+                errors.put(booking.getId(), "Бронирование недоступно.");
+            } else {
+                errors.put(booking.getId(), "Данные были изменены другим запросом, повторите попытку.");
+            }
+        }
+    }
+
+    private void updateStatus(Booking booking, Status status) {
+        if (bookingRepository.updateStatusIfVersion(booking.getId(), booking.getVersion(), status) > 0) {
+            return;
+        }
+        checkNotApproved(bookingRepository.findStatusById(booking.getId()).orElseThrow(() ->
+                new NotFoundException("Нет данных о бронирование.")));
+        throw new OptimisticLockingFailureException(
+                String.format("Booking with id %d was changed concurrently", booking.getId()));
+    }
+
+    private void checkNotApproved(Status status) {
+        if (status == Status.APPROVED) {
+            throw new ShareItValidationException("Бронирование недоступно.");
+        }
+    }
+
     private Booking getBookingById(Long bookingId) {
         return bookingRepository.findById(bookingId).orElseThrow(() ->
                 new NotFoundException("Нет данных о бронирование."));
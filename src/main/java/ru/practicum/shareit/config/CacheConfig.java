@@ -0,0 +1,13 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+    public static final String USERS_CACHE = "users";
+    public static final String USER_IDS_CACHE = "userIds";
+    public static final String COMPLETED_RENTALS_CACHE = "completedRentals";
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.ServletRequestBindingException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -42,6 +44,30 @@ public class ErrorHandler {
         );
     }
 
+    @ExceptionHandler({DataIntegrityViolationException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleDataIntegrityViolation(final DataIntegrityViolationException e) {
+        log.debug("Получен статус {} {}. Причина: {}",
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                e.getMostSpecificCause().getMessage());
+        return Map.of(
+                "error", "Данные конфликтуют с уже сохраненными."
+        );
+    }
+
+    @ExceptionHandler({OptimisticLockingFailureException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleOptimisticLockingFailure(final OptimisticLockingFailureException e) {
+        log.debug("Получен статус {} {}. Причина: {}",
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                e.getMessage());
+        return Map.of(
+                "error", "Данные были изменены другим запросом, повторите попытку."
+        );
+    }
+
     @ExceptionHandler({ShareItValidationException.class,
             ArgumentException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
@@ -73,10 +99,10 @@ public class ErrorHandler {
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public Map<String, String> handleThrowable(final Throwable e) {
-        log.debug("Получен статус {} {}. Причина: {}",
+        log.error("Получен статус {} {}. Причина: {}",
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
                 HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase(),
-                e.getMessage());
+                e.getMessage(), e);
         return Map.of(
                 "error", e.getMessage()
         );
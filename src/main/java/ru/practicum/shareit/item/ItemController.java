@@ -1,12 +1,17 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateCommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateItemDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.service.ItemBulkImporter;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.marker.OnCreate;
 import ru.practicum.shareit.marker.OnUpdate;
@@ -15,6 +20,9 @@ import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static ru.practicum.shareit.util.Constant.REQUEST_HEADER_USER_ID;
@@ -25,6 +33,7 @@ import static ru.practicum.shareit.util.Constant.REQUEST_HEADER_USER_ID;
 @Validated
 public class ItemController {
     private final ItemService itemService;
+    private final ItemBulkImporter itemBulkImporter;
 
     @PostMapping()
     public ItemDto createItem(@RequestHeader(REQUEST_HEADER_USER_ID) Long userId,
@@ -32,6 +41,12 @@ public class ItemController {
         return itemService.createItem(userId, createUpdateItemDto);
     }
 
+    @PostMapping(path = "/bulk", consumes = "application/x-ndjson")
+    public ItemImportResultDto importItems(@RequestHeader(REQUEST_HEADER_USER_ID) long userId,
+                                           InputStream body) throws IOException {
+        return itemBulkImporter.importItems(userId, body);
+    }
+
     @GetMapping("/{itemId}")
     public ItemDto getItemById(@RequestHeader(REQUEST_HEADER_USER_ID) long userId,
                                @PathVariable long itemId) {
@@ -59,6 +74,16 @@ public class ItemController {
         itemService.removeItem(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@RequestHeader(REQUEST_HEADER_USER_ID) long userId,
+                                               @PathVariable long itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime to) {
+        return itemService.getAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping("/search")
     public List<ItemDto> search(@RequestHeader(REQUEST_HEADER_USER_ID) long userId,
                                      @RequestParam(name = "text") String text,
@@ -76,4 +101,12 @@ public class ItemController {
                                     @RequestBody @Validated CreateUpdateCommentDto createUpdateCommentDto) {
         return itemService.createComment(userId, itemId, createUpdateCommentDto);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDto> getComments(@RequestHeader(REQUEST_HEADER_USER_ID) long userId,
+                                        @PathVariable long itemId,
+                                        @RequestParam(defaultValue = "20") @Positive int size,
+                                        @RequestParam(required = false) String after) {
+        return itemService.getComments(userId, itemId, after == null ? null : CommentCursor.parse(after), size);
+    }
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.exception.ShareItValidationException;
+import ru.practicum.shareit.util.Cursors;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class CommentCursor {
+    private LocalDateTime created;
+    private Long id;
+
+    public static CommentCursor parse(String token) {
+        CommentCursor cursor = Cursors.parse(token, CommentCursor::new);
+        if (cursor.getId() != cursor.getId().intValue()) {
+            throw new ShareItValidationException(String.format("Некорректный курсор: %s", token));
+        }
+        return cursor;
+    }
+}
@@ -17,4 +17,5 @@ public class ItemDto {
     private GetBookingForGetItemDto lastBooking;
     private GetBookingForGetItemDto nextBooking;
     private SortedSet<CommentDto> comments;
+    private Integer commentsCount;
 }
@@ -12,13 +12,16 @@ import java.util.Set;
 @Builder(toBuilder = true)
 @Entity
 @Table(name = "items")
-@EqualsAndHashCode(exclude = {"name", "description", "available", "owner"})
+@NamedEntityGraph(name = "Item.details",
+        attributeNodes = {@NamedAttributeNode("owner"), @NamedAttributeNode("request")})
+@EqualsAndHashCode(exclude = {"name", "description", "available", "owner", "commentsCount"})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -34,6 +37,9 @@ public class Item {
     @ToString.Exclude
     private User owner;
 
+    @Column(name = "comments_count", nullable = false, updatable = false)
+    private int commentsCount;
+
     @ManyToOne
     @ToString.Exclude
     private ItemRequest request;
@@ -1,13 +1,39 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @Query(value = "select c from Comment c where c.item.id = ?1")
     List<Comment> findAllByItemId(long itemId, Sort sort);
 
-    List<Comment> findAllByItemIdIn(List<Long> items, Sort sort);
+    @EntityGraph(attributePaths = "author")
+    @Query(value = "select c from Comment c where c.item.id = ?1 order by c.created desc, c.id desc")
+    List<Comment> findLatestByItemId(long itemId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "author")
+    @Query(value = "select c from Comment c where c.item.id = :itemId " +
+            " and c.created <= :created and (c.created < :created or c.id < :id)" +
+            " order by c.created desc, c.id desc")
+    List<Comment> findAllByItemIdAfter(@Param("itemId") long itemId, @Param("created") LocalDateTime created,
+                                       @Param("id") int id, Pageable pageable);
+
+    @Query(value = "select id from (" +
+            " select c.id, row_number() over (partition by c.item_id order by c.created desc, c.id desc) as rn" +
+            " from comments c where c.item_id in (:itemIds)" +
+            ") as latest where latest.rn <= :limit", nativeQuery = true)
+    List<Number> findLatestIdsByItemIdIn(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @EntityGraph(attributePaths = "author")
+    @Query(value = "select c from Comment c where c.id in ?1")
+    List<Comment> findAllByIdIn(Collection<Integer> ids);
 }
@@ -1,20 +1,69 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.ItemSearchView;
 import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    @Override
+    @EntityGraph("Item.details")
+    Optional<Item> findById(Long id);
+
+    @Override
+    @EntityGraph("Item.details")
+    List<Item> findAllById(Iterable<Long> ids);
+
+    @EntityGraph("Item.details")
+    @Query(value = "select i from Item i where i.owner.id = ?1")
     List<Item> findAllByOwnerId(Long userId, Pageable pageable);
 
+    @EntityGraph("Item.details")
     @Query(value = "select i from Item i " +
-            "where( lower(i.name) like lower(concat('%',?1,'%')) "
-            + " or lower(i.description) like lower(concat('%',?1,'%')))"
-            + " and i.available=true")
-    List<Item> search(String text, Pageable pageable);
+            "where (lower(i.name) like :pattern escape '\\' "
+            + " or lower(i.description) like :pattern escape '\\')"
+            + " and i.available = true"
+            + " order by i.id")
+    List<Item> search(@Param("pattern") String pattern, Pageable pageable);
 
+    @EntityGraph("Item.details")
+    @Query(value = "select i from Item i where i.request.id = ?1")
     List<Item> findAllByRequestId(Long requestId);
+
+    @EntityGraph("Item.details")
+    @Query(value = "select i from Item i where i.request.id in ?1 order by i.id")
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "select i from Item i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "select i from Item i where i.id in ?1 order by i.id")
+    List<Item> findAllByIdInForUpdate(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "update Item i set i.commentsCount = i.commentsCount + 1 where i.id = ?1")
+    int incrementCommentsCount(Long itemId);
+
+    @Modifying
+    @Query(value = "update items set comments_count = comments_count - " +
+            "(select count(*) from comments c where c.item_id = items.id and c.author_id = ?1) " +
+            "where id in (select c.item_id from comments c where c.author_id = ?1)", nativeQuery = true)
+    int subtractCommentsOfAuthor(Long authorId);
+
+    @Query(value = "select i.id as id, i.name as name, i.description as description from Item i " +
+            "where i.available = true and i.id > :afterId order by i.id")
+    List<ItemSearchView> findAvailableForSearchIndex(@Param("afterId") long afterId, Pageable pageable);
 }
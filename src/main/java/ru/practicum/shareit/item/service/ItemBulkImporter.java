@@ -0,0 +1,110 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.CreateUpdateItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.marker.OnCreate;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBulkImporter {
+    private static final int CHUNK_SIZE = 500;
+
+    private final ItemService itemService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public ItemImportResultDto importItems(long userId, InputStream body) throws IOException {
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Пользоваетль не найден.");
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<ItemImportErrorDto> errors = new ArrayList<>();
+        ItemImportResultDto result = new ItemImportResultDto(0, errors);
+        Map<Long, CreateUpdateItemDto> chunk = new LinkedHashMap<>();
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+
+            CreateUpdateItemDto item;
+            try {
+                item = objectMapper.readValue(text, CreateUpdateItemDto.class);
+            } catch (JsonProcessingException e) {
+                errors.add(new ItemImportErrorDto(line, "Некорректный JSON."));
+                continue;
+            }
+
+            Set<ConstraintViolation<CreateUpdateItemDto>> violations = validator.validate(item, OnCreate.class);
+            if (!violations.isEmpty()) {
+                errors.add(new ItemImportErrorDto(line, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "))));
+                continue;
+            }
+
+            chunk.put(line, item);
+            if (chunk.size() == CHUNK_SIZE) {
+                if (!save(userId, chunk, result)) {
+                    return result;
+                }
+                chunk = new LinkedHashMap<>();
+            }
+        }
+        save(userId, chunk, result);
+
+        return result;
+    }
+
+    private boolean save(long userId, Map<Long, CreateUpdateItemDto> chunk, ItemImportResultDto result) {
+        if (chunk.isEmpty()) {
+            return true;
+        }
+
+        List<ItemImportErrorDto> chunkErrors;
+        try {
+            chunkErrors = itemService.createItems(userId, chunk);
+        } catch (DataAccessException e) {
+            List<Long> lines = new ArrayList<>(chunk.keySet());
+            long first = lines.get(0);
+            long last = lines.get(lines.size() - 1);
+            log.warn("Импорт вещей пользователя {} остановлен на строках {}-{}", userId, first, last, e);
+            result.getErrors().add(new ItemImportErrorDto(first, String.format(
+                    "Строки %d-%d не сохранены, импорт остановлен. Сохранено вещей: %d.",
+                    first, last, result.getImported())));
+            return false;
+        }
+        result.getErrors().addAll(chunkErrors);
+        result.setImported(result.getImported() + chunk.size() - chunkErrors.size());
+        return true;
+    }
+}
@@ -1,16 +1,23 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateCommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateItemDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface ItemService {
 
     ItemDto createItem(long userId, CreateUpdateItemDto createUpdateItemDto);
 
+    List<ItemImportErrorDto> createItems(long userId, Map<Long, CreateUpdateItemDto> items);
+
     ItemDto getItemById(Long userId, Long id);
 
     List<ItemDto> getAllItems(Long userId, int from, int size);
@@ -19,7 +26,11 @@ public interface ItemService {
 
     void removeItem(long id, long userId);
 
+    ItemAvailabilityDto getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to);
+
     List<ItemDto> search(String text, int from, int size);
 
     CommentDto createComment(long userId, long itemId, CreateUpdateCommentDto commentDto);
+
+    List<CommentDto> getComments(long userId, long itemId, CommentCursor after, int size);
 }
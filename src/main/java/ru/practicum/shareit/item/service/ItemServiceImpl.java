@@ -5,13 +5,19 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ShareItValidationException;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateCommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateItemDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
@@ -23,14 +29,22 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
-import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static ru.practicum.shareit.util.Constant.EMBEDDED_COMMENTS;
+
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -39,10 +53,14 @@ public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final EntityManager entityManager;
 
     @Override
     public ItemDto createItem(long userId, CreateUpdateItemDto createUpdateItemDto) {
-        User user = userRepository.findById(userId).orElseThrow(() ->
+        User user = userRepository.findCachedById(userId).orElseThrow(() ->
                 new NotFoundException("Пользоваетль не найден."));
 
         Item item = ItemMapper.toItemFromCreateUpdateItemDto(createUpdateItemDto);
@@ -54,38 +72,100 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(request);
         }
 
-        return ItemMapper.toItemDtoFromItem(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+
+        return ItemMapper.toItemDtoFromItem(savedItem);
     }
 
     @Override
-    public ItemDto getItemById(Long userId, Long id) {
-        userRepository.findById(userId).orElseThrow(() ->
+    public List<ItemImportErrorDto> createItems(long userId, Map<Long, CreateUpdateItemDto> items) {
+        User user = userRepository.findCachedById(userId).orElseThrow(() ->
                 new NotFoundException("Пользоваетль не найден."));
+
+        Set<Long> requestIds = items.values().stream()
+                .map(CreateUpdateItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = requestIds.isEmpty() ? Collections.emptyMap()
+                : itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<ItemImportErrorDto> errors = new ArrayList<>();
+        List<Item> newItems = new ArrayList<>(items.size());
+        for (Map.Entry<Long, CreateUpdateItemDto> entry : items.entrySet()) {
+            Long requestId = entry.getValue().getRequestId();
+            if (requestId != null && !requests.containsKey(requestId)) {
+                errors.add(new ItemImportErrorDto(entry.getKey(), "Запрос не найден"));
+                continue;
+            }
+
+            Item item = ItemMapper.toItemFromCreateUpdateItemDto(entry.getValue());
+            item.setOwner(user);
+            item.setRequest(requestId == null ? null : requests.get(requestId));
+            newItems.add(item);
+        }
+
+        itemRepository.saveAllAndFlush(newItems).forEach(itemSearchIndex::index);
+        entityManager.clear();
+
+        return errors;
+    }
+
+    @Override
+    public ItemDto getItemById(Long userId, Long id) {
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Пользоваетль не найден.");
+        }
         Item item = itemRepository.findById(id).orElseThrow(() ->
                 new NotFoundException("Такого товара нет."));
+        List<Comment> comments = findLatestComments(id);
 
         if (Objects.equals(item.getOwner().getId(), userId)) {
-            return ItemMapper.toItemDtoWithBookingsFromItem(item);
+            Map<Long, Booking> lastBookings = new HashMap<>();
+            Map<Long, Booking> nextBookings = new HashMap<>();
+            findLastAndNextBookings(List.of(id), lastBookings, nextBookings);
+
+            return ItemMapper.toItemDtoWithBookingsFromItem(item, lastBookings.get(id), nextBookings.get(id),
+                    comments);
         } else {
-            return ItemMapper.toItemDtoFromItem(item);
+            return ItemMapper.toItemDtoFromItem(item, comments);
         }
     }
 
     @Override
     public List<ItemDto> getAllItems(Long userId, int from, int size) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден."));
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Пользователь не найден.");
+        }
 
-        return itemRepository.findAllByOwnerId(userId, PageRequest.of(from / size, size))
-                .stream()
-                .map(ItemMapper::toItemDtoWithBookingsFromItem)
+        List<Item> items = itemRepository.findAllByOwnerId(userId, PageRequest.of(from / size, size));
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
                 .collect(Collectors.toList());
 
+        Map<Long, Booking> lastBookings = new HashMap<>();
+        Map<Long, Booking> nextBookings = new HashMap<>();
+        findLastAndNextBookings(itemIds, lastBookings, nextBookings);
+        Map<Long, List<Comment>> comments = findComments(itemIds);
+
+        return items.stream()
+                .map(item -> ItemMapper.toItemDtoWithBookingsFromItem(item,
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()),
+                        comments.getOrDefault(item.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
 
     @Override
     public ItemDto updateItem(long userId, long itemId, CreateUpdateItemDto createUpdateItemDto) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Такого пользователя нет."));
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Такого пользователя нет.");
+        }
 
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Такого товара нет."));
         if (userId != item.getOwner().getId()) {
@@ -104,12 +184,17 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(createUpdateItemDto.getAvailable());
         }
 
-        return ItemMapper.toItemDtoFromItem(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+
+        return ItemMapper.toItemDtoFromItem(savedItem, findLatestComments(itemId));
     }
 
     @Override
     public void removeItem(long itemId, long userId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Такого пользователя нет."));
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Такого пользователя нет.");
+        }
 
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Такого товара нет."));
         if (userId != item.getOwner().getId()) {
@@ -117,6 +202,23 @@ public class ItemServiceImpl implements ItemService {
         }
 
         itemRepository.deleteById(itemId);
+        itemSearchIndex.remove(itemId);
+        availabilityIndex.evictItem(itemId);
+    }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Пользователь не найден.");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Такого товара нет.");
+        }
+        if (!to.isAfter(from)) {
+            throw new ShareItValidationException("Неправильный период.");
+        }
+
+        return ItemMapper.toItemAvailabilityDto(itemId, from, to, availabilityIndex.findBooked(itemId, from, to));
     }
 
     @Override
@@ -127,20 +229,30 @@ public class ItemServiceImpl implements ItemService {
         }
         Pageable pageable = PageRequest.of(from / size, size);
 
-        return itemRepository.search(text, pageable)
-                .stream()
-                .map(ItemMapper::toItemDtoFromItem)
-                .collect(Collectors.toList());
+        Optional<List<Long>> indexedIds = itemSearchIndex.search(text, pageable.getOffset(), size);
+        if (indexedIds.isPresent()) {
+            Map<Long, Item> items = itemRepository.findAllById(indexedIds.get())
+                    .stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+            return toItemDtos(indexedIds.get()
+                    .stream()
+                    .map(items::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+        }
+
+        return toItemDtos(itemRepository.search(toSearchPattern(text), pageable));
     }
 
     @Override
     public CommentDto createComment(long userId, long itemId, CreateUpdateCommentDto createUpdateCommentDto) {
-        User user = userRepository.findById(userId).orElseThrow(()
+        User user = userRepository.findCachedById(userId).orElseThrow(()
                 -> new NotFoundException("Пользователь не найден."));
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new NotFoundException("вещь не найдена."));
 
-        if (isBookingByUser(user, item)) {
+        if (bookingRepository.existsCompletedRental(user.getId(), item.getId(), LocalDateTime.now())) {
             Comment comment = CommentMapper.toCommentFromCreateUpdateCommentDto(createUpdateCommentDto);
 
             comment.setAuthor(user);
@@ -148,19 +260,88 @@ public class ItemServiceImpl implements ItemService {
             comment.setAuthor(user);
             comment.setCreated(LocalDateTime.now());
 
-            return CommentMapper.toCommentDtoFromComment(commentRepository.save(comment));
+            Comment savedComment = commentRepository.save(comment);
+            itemRepository.incrementCommentsCount(itemId);
+
+            return CommentMapper.toCommentDtoFromComment(savedComment);
         } else {
             throw new ShareItValidationException(String.format(
                     "Пользователь с ID = %s не брал в аренду вещь с ID = %s", userId, itemId));
         }
     }
 
-    private @NotNull Boolean isBookingByUser(User user, @NotNull Item item) {
-        LocalDateTime currentTime = LocalDateTime.now();
-        return item.getBookings() != null && item.getBookings().stream()
-                .anyMatch(t -> t.getBooker().equals(user)
-                        && t.getEnd().isBefore(currentTime)
-                        && t.getStatus().equals(Status.APPROVED));
+    @Override
+    public List<CommentDto> getComments(long userId, long itemId, CommentCursor after, int size) {
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Пользователь не найден.");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Такого товара нет.");
+        }
+
+        Pageable pageable = PageRequest.of(0, size);
+        List<Comment> comments = after == null
+                ? commentRepository.findLatestByItemId(itemId, pageable)
+                : commentRepository.findAllByItemIdAfter(itemId, after.getCreated(), Math.toIntExact(after.getId()),
+                pageable);
+
+        return comments.stream()
+                .map(CommentMapper::toCommentDtoFromComment)
+                .collect(Collectors.toList());
+    }
+
+    private String toSearchPattern(String text) {
+        String escaped = text.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private List<ItemDto> toItemDtos(List<Item> items) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, List<Comment>> comments = findComments(items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList()));
+
+        return items.stream()
+                .map(item -> ItemMapper.toItemDtoFromItem(item,
+                        comments.getOrDefault(item.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, List<Comment>> findComments(List<Long> itemIds) {
+        List<Integer> commentIds = commentRepository.findLatestIdsByItemIdIn(itemIds, EMBEDDED_COMMENTS)
+                .stream()
+                .map(Number::intValue)
+                .collect(Collectors.toList());
+        if (commentIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return commentRepository.findAllByIdIn(commentIds)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+    }
+
+    private List<Comment> findLatestComments(long itemId) {
+        return commentRepository.findLatestByItemId(itemId, PageRequest.of(0, EMBEDDED_COMMENTS));
+    }
+
+    private void findLastAndNextBookings(List<Long> itemIds, Map<Long, Booking> lastBookings,
+                                         Map<Long, Booking> nextBookings) {
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Booking booking : bookingRepository.findLastAndNextApprovedByItemIdIn(itemIds, now)) {
+            if (booking.getStart().isBefore(now)) {
+                lastBookings.put(booking.getItem().getId(), booking);
+            } else {
+                nextBookings.put(booking.getItem().getId(), booking);
+            }
+        }
     }
 }
 
@@ -2,28 +2,36 @@ package ru.practicum.shareit.mapper;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dto.BookedPeriodDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateItemDto;
 import ru.practicum.shareit.item.dto.GetBookingForItemDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.util.IntervalTree;
 
 import java.time.LocalDateTime;
-import java.util.Set;
+import java.util.Collection;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
-import static ru.practicum.shareit.util.Constant.*;
+import static ru.practicum.shareit.util.Constant.orderByCreatedDesc;
 
 @UtilityClass
 public class ItemMapper {
     public ItemDto toItemDtoFromItem(Item item) {
+        return toItemDtoFromItem(item, item.getComments());
+    }
+
+    public ItemDto toItemDtoFromItem(Item item, Collection<Comment> itemComments) {
         SortedSet<CommentDto> comments = new TreeSet<>(orderByCreatedDesc);
 
-        if (item.getComments() != null) {
-            comments.addAll(item.getComments()
+        if (itemComments != null) {
+            comments.addAll(itemComments
                     .stream()
                     .map(CommentMapper::toCommentDtoFromComment)
                     .collect(Collectors.toSet()));
@@ -36,40 +44,36 @@ public class ItemMapper {
                 .available(item.getAvailable())
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
                 .comments(comments)
+                .commentsCount(item.getCommentsCount())
                 .build();
     }
 
-    public ItemDto toItemDtoWithBookingsFromItem(Item item) {
-        LocalDateTime currentTime = LocalDateTime.now();
-
-        ItemDto itemDto = toItemDtoFromItem(item);
-
-        Set<Booking> bookings = item.getBookings();
-
-        if (bookings != null) {
-            Booking lastBooking = bookings
-                    .stream()
-                    .sorted(orderByStartDateDesc)
-                    .filter(t -> t.getStart().isBefore(currentTime) &&
-                            t.getStatus().equals(Status.APPROVED))
-                    .findFirst()
-                    .orElse(null);
-
-            Booking nextBooking = bookings
-                    .stream()
-                    .sorted(orderByStartDateAsc)
-                    .filter(t -> t.getStart().isAfter(currentTime) &&
-                            t.getStatus().equals(Status.APPROVED))
-                    .findFirst()
-                    .orElse(null);
+    public ItemDto toItemDtoWithBookingsFromItem(Item item, Booking lastBooking, Booking nextBooking,
+                                                 Collection<Comment> comments) {
+        ItemDto itemDto = toItemDtoFromItem(item, comments);
 
-            itemDto.setLastBooking(BookingMapper.toGetBookingForItemDtoFromBooking(lastBooking));
-            itemDto.setNextBooking(BookingMapper.toGetBookingForItemDtoFromBooking(nextBooking));
-        }
+        itemDto.setLastBooking(BookingMapper.toGetBookingForItemDtoFromBooking(lastBooking));
+        itemDto.setNextBooking(BookingMapper.toGetBookingForItemDtoFromBooking(nextBooking));
 
         return itemDto;
     }
 
+    public ItemAvailabilityDto toItemAvailabilityDto(long itemId, LocalDateTime from, LocalDateTime to,
+                                                     List<IntervalTree.Interval> booked) {
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .available(booked.isEmpty())
+                .booked(booked.stream()
+                        .map(interval -> BookedPeriodDto.builder()
+                                .start(interval.getStart())
+                                .end(interval.getEnd())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
     public GetBookingForItemDto toGetBookingForItemDtoFromItem(Item item) {
         return GetBookingForItemDto.builder()
                 .id(item.getId())
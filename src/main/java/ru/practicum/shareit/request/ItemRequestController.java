@@ -1,9 +1,12 @@
 package ru.practicum.shareit.request;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.CreateUpdateItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
@@ -11,16 +14,23 @@ import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
+import java.time.Duration;
 import java.util.List;
 
 import static ru.practicum.shareit.util.Constant.REQUEST_HEADER_USER_ID;
 
 @RestController
-@RequiredArgsConstructor
 @RequestMapping(path = "/requests")
 @Validated
 public class ItemRequestController {
     private final ItemRequestService itemRequestService;
+    private final long feedTimeout;
+
+    public ItemRequestController(ItemRequestService itemRequestService,
+                                 @Value("${shareit.requests.feed.timeout:30m}") Duration feedTimeout) {
+        this.itemRequestService = itemRequestService;
+        this.feedTimeout = feedTimeout.toMillis();
+    }
 
     @PostMapping
     public ItemRequestDto add(@RequestHeader(REQUEST_HEADER_USER_ID) Long userId,
@@ -38,10 +48,20 @@ public class ItemRequestController {
     @GetMapping("/all")
     public List<ItemRequestDto> getOtherUsersRequests(@RequestHeader(REQUEST_HEADER_USER_ID) Long userId,
                                                       @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                      @RequestParam(defaultValue = "10") @Positive Integer size) {
+                                                      @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                      @RequestParam(required = false) String after) {
+        if (after != null) {
+            return itemRequestService.getUserRequestsById(userId, ItemRequestCursor.parse(after), size);
+        }
         return itemRequestService.getUserRequestsById(userId, from, size);
     }
 
+    @GetMapping(path = "/all/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOtherUsersRequests(@RequestHeader(REQUEST_HEADER_USER_ID) Long userId) {
+        SseEmitter emitter = new SseEmitter(feedTimeout);
+        itemRequestService.subscribe(userId, emitter);
+        return emitter;
+    }
 
     @GetMapping("/{requestId}")
     public ItemRequestDto getRequestById(@RequestHeader(REQUEST_HEADER_USER_ID) Long userId,
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.util.Cursors;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class ItemRequestCursor {
+    private LocalDateTime created;
+    private Long id;
+
+    public static ItemRequestCursor parse(String token) {
+        return Cursors.parse(token, ItemRequestCursor::new);
+    }
+}
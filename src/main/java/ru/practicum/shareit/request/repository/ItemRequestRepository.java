@@ -2,13 +2,25 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
+    @Query(value = "select r from ItemRequest r where r.requester.id <> ?1 order by r.created desc, r.id desc")
     List<ItemRequest> findAllByRequesterIdNot(Long userId, Pageable pageable);
 
+    @Query(value = "select r from ItemRequest r where r.requester.id <> :userId " +
+            " and r.created <= :created and (r.created < :created or r.id < :id)" +
+            " order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequesterIdNotAfter(@Param("userId") long userId,
+                                                   @Param("created") LocalDateTime created,
+                                                   @Param("id") long id, Pageable pageable);
+
+    @Query(value = "select r from ItemRequest r where r.requester.id = ?1 order by r.created desc, r.id desc")
     List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(long id, Pageable pageable);
 }
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.CreateUpdateItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.List;
@@ -13,4 +15,8 @@ public interface ItemRequestService {
     ItemRequestDto getItemRequestById(Long userId, Long requestId);
 
     List<ItemRequestDto> getUserRequestsById(Long userId, int from, int size);
+
+    List<ItemRequestDto> getUserRequestsById(Long userId, ItemRequestCursor after, int size);
+
+    void subscribe(Long userId, SseEmitter emitter);
 }
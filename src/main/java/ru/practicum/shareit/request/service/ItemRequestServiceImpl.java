@@ -3,11 +3,19 @@ package ru.practicum.shareit.request.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.mapper.ItemMapper;
 import ru.practicum.shareit.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.CreateUpdateItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -15,9 +23,14 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import static ru.practicum.shareit.util.Constant.EMBEDDED_COMMENTS;
+
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -25,55 +38,117 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final ItemRequestFeed itemRequestFeed;
 
     @Transactional
     @Override
     public ItemRequestDto add(CreateUpdateItemRequestDto itemRequestDto, Long userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findCachedById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользоваетль не найден."));
 
         ItemRequest itemRequest = itemRequestRepository.save(ItemRequest.builder()
                 .description(itemRequestDto.getDescription())
-                .created(LocalDateTime.now())
+                .created(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS))
                 .requester(user)
                 .build());
 
-        return ItemRequestMapper.toItemRequestDtoFromItemRequest(itemRequest);
+        ItemRequestDto dto = ItemRequestMapper.toItemRequestDto(itemRequest, List.of());
+        itemRequestFeed.publish(user.getId(), dto);
+
+        return dto;
     }
 
     @Override
     public List<ItemRequestDto> getUserRequests(Long userId, int from, int size) {
 
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new NotFoundException("Пользователь не найден")
-        );
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
 
-        return itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(user.getId(), PageRequest.of(from / size, size))
-                .stream()
-                .map(ItemRequestMapper::toItemRequestDtoFromItemRequest)
-                .collect(Collectors.toList());
+        return toItemRequestDtos(itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId,
+                PageRequest.of(from / size, size)));
     }
 
 
     @Override
     public ItemRequestDto getItemRequestById(Long userId, Long requestId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользоваетль не найден."));
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Пользоваетль не найден.");
+        }
 
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Запрос не найден."));
 
-        return ItemRequestMapper.toItemRequestDto(itemRequest, itemRepository.findAllByRequestId(requestId));
+        return toItemRequestDtos(List.of(itemRequest)).get(0);
     }
 
     @Override
     public List<ItemRequestDto> getUserRequestsById(Long userId, int from, int size) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользоваетль не найден."));
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Пользоваетль не найден.");
+        }
+
+        return toItemRequestDtos(itemRequestRepository.findAllByRequesterIdNot(userId,
+                PageRequest.of(from / size, size)));
+    }
+
+    @Override
+    public List<ItemRequestDto> getUserRequestsById(Long userId, ItemRequestCursor after, int size) {
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Пользоваетль не найден.");
+        }
+
+        return toItemRequestDtos(itemRequestRepository.findAllByRequesterIdNotAfter(userId, after.getCreated(),
+                after.getId(), PageRequest.of(0, size)));
+    }
 
-        return itemRequestRepository.findAllByRequesterIdNot(userId, PageRequest.of(from / size, size))
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Override
+    public void subscribe(Long userId, SseEmitter emitter) {
+        if (!userRepository.existsCachedById(userId)) {
+            throw new NotFoundException("Пользоваетль не найден.");
+        }
+
+        itemRequestFeed.subscribe(userId, emitter);
+    }
+
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Item> items = itemRepository.findAllByRequestIdIn(requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList()));
+        Map<Long, List<Comment>> comments = findComments(items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList()));
+        Map<Long, List<ItemDto>> itemsByRequest = items.stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(item -> ItemMapper.toItemDtoFromItem(item,
+                                comments.getOrDefault(item.getId(), Collections.emptyList())), Collectors.toList())));
+
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(request, itemsByRequest.get(request.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, List<Comment>> findComments(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Integer> commentIds = commentRepository.findLatestIdsByItemIdIn(itemIds, EMBEDDED_COMMENTS)
                 .stream()
-                .map(ItemRequestMapper::toItemRequestDtoFromItemRequest)
+                .map(Number::intValue)
                 .collect(Collectors.toList());
+        if (commentIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return commentRepository.findAllByIdIn(commentIds)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
     }
 }
@@ -1,7 +1,20 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Optional;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, unless = "#result == null")
+    @Query(value = "select u from User u where u.id = ?1")
+    Optional<User> findCachedById(Long id);
+
+    @Cacheable(cacheNames = CacheConfig.USER_IDS_CACHE, unless = "!#result")
+    @Query(value = "select case when count(u) > 0 then true else false end from User u where u.id = ?1")
+    boolean existsCachedById(Long id);
 }
@@ -3,11 +3,16 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.exception.AlreadyExistedException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.mapper.UserMapper;
 import ru.practicum.shareit.user.dto.CreateUpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -22,6 +27,8 @@ import java.util.List;
 @Transactional
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingAvailabilityIndex availabilityIndex;
     private static final Logger log = LoggerFactory.getLogger(UserServiceImpl.class);
 
 
@@ -29,7 +36,7 @@ public class UserServiceImpl implements UserService {
     public UserDto createUser(CreateUpdateUserDto createUpdateUserDto) {
         try {
             return UserMapper.toUserDtoFromUser(
-                    userRepository.save(UserMapper.toUserFromCreateUpdateUserDto(createUpdateUserDto))
+                    userRepository.saveAndFlush(UserMapper.toUserFromCreateUpdateUserDto(createUpdateUserDto))
             );
         } catch (DataIntegrityViolationException e) {
             throw new AlreadyExistedException(String.format(
@@ -39,6 +46,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
     public UserDto updateUser(Long userId, CreateUpdateUserDto createUpdateUserDto) {
         User user = userRepository.findById(userId).orElseThrow(() ->
                 new NotFoundException("Такого пользователя нет."));
@@ -64,7 +72,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
-        return UserMapper.toUserDtoFromUser(userRepository.findById(id).orElseThrow(() ->
+        return UserMapper.toUserDtoFromUser(userRepository.findCachedById(id).orElseThrow(() ->
                 new NotFoundException("Такого пользователя нет.")));
     }
 
@@ -86,10 +94,16 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USER_IDS_CACHE, key = "#userId")
+    })
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() ->
                 new NotFoundException("Такого пользователя нет."));
 
+        itemRepository.subtractCommentsOfAuthor(userId);
         userRepository.delete(user);
+        availabilityIndex.evictAll();
     }
 }
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.util;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.exception.ShareItValidationException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.function.BiFunction;
+
+@UtilityClass
+public class Cursors {
+    public <T> T parse(String token, BiFunction<LocalDateTime, Long, T> cursor) {
+        String[] parts = token.split(",");
+        if (parts.length != 2) {
+            throw new ShareItValidationException(String.format("Некорректный курсор: %s", token));
+        }
+
+        try {
+            return cursor.apply(LocalDateTime.parse(parts[0].trim()), Long.parseLong(parts[1].trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new ShareItValidationException(String.format("Некорректный курсор: %s", token));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.util;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class IntervalTree {
+    private static final Comparator<Interval> ORDER = Comparator.comparing(Interval::getStart)
+            .thenComparingLong(Interval::getId);
+
+    private Node root;
+    private int size;
+
+    public boolean add(long id, LocalDateTime start, LocalDateTime end) {
+        int before = size;
+        root = insert(root, new Interval(id, start, end));
+        return size > before;
+    }
+
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        Node node = root;
+        while (node != null) {
+            if (overlaps(node.interval, from, to)) {
+                return true;
+            }
+            if (node.left != null && node.left.maxEnd.isAfter(from)) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return false;
+    }
+
+    public List<Interval> find(LocalDateTime from, LocalDateTime to) {
+        List<Interval> result = new ArrayList<>();
+        collect(root, from, to, result);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Node insert(Node node, Interval interval) {
+        if (node == null) {
+            size++;
+            return new Node(interval);
+        }
+
+        int compare = ORDER.compare(interval, node.interval);
+        if (compare < 0) {
+            node.left = insert(node.left, interval);
+        } else if (compare > 0) {
+            node.right = insert(node.right, interval);
+        } else {
+            return node;
+        }
+        return balance(node);
+    }
+
+    private static void collect(Node node, LocalDateTime from, LocalDateTime to, List<Interval> result) {
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+        collect(node.left, from, to, result);
+        if (!node.interval.getStart().isBefore(to)) {
+            return;
+        }
+        if (overlaps(node.interval, from, to)) {
+            result.add(node.interval);
+        }
+        collect(node.right, from, to, result);
+    }
+
+    private static boolean overlaps(Interval interval, LocalDateTime from, LocalDateTime to) {
+        return interval.getStart().isBefore(to) && interval.getEnd().isAfter(from);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.interval.getEnd();
+        if (node.left != null && node.left.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    @Value
+    public static class Interval {
+        long id;
+        LocalDateTime start;
+        LocalDateTime end;
+    }
+
+    private static class Node {
+        private final Interval interval;
+        private Node left;
+        private Node right;
+        private int height = 1;
+        private LocalDateTime maxEnd;
+
+        Node(Interval interval) {
+            this.interval = interval;
+            this.maxEnd = interval.getEnd();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS IDX_ITEM_NAME_TRGM ON items USING gin (lower(name) gin_trgm_ops)
+    WHERE is_available;
+
+CREATE INDEX IF NOT EXISTS IDX_ITEM_DESCRIPTION_TRGM ON items USING gin (lower(description) gin_trgm_ops)
+    WHERE is_available;
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conname = ''ex_booking_approved_period'' AND conrelid = ''bookings''::regclass) THEN
+        ALTER TABLE bookings ADD CONSTRAINT EX_BOOKING_APPROVED_PERIOD
+            EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+            WHERE (status = ''APPROVED'');
+    END IF;
+END';
+
+SELECT setval('user_seq', greatest((SELECT last_value FROM user_seq), (SELECT coalesce(max(id), 0) FROM users)));
+
+SELECT setval('request_seq', greatest((SELECT last_value FROM request_seq), (SELECT coalesce(max(id), 0) FROM requests)));
+
+SELECT setval('item_seq', greatest((SELECT last_value FROM item_seq), (SELECT coalesce(max(id), 0) FROM items)));
+
+SELECT setval('booking_seq', greatest((SELECT last_value FROM booking_seq), (SELECT coalesce(max(id), 0) FROM bookings)));
+
+SELECT setval('comment_seq', greatest((SELECT last_value FROM comment_seq), (SELECT coalesce(max(id), 0) FROM comments)));
@@ -1,3 +1,5 @@
+CREATE SEQUENCE IF NOT EXISTS user_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users
 (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -7,6 +9,8 @@ CREATE TABLE IF NOT EXISTS users
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 
+CREATE SEQUENCE IF NOT EXISTS request_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS requests
 (
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -18,6 +22,8 @@ CREATE TABLE IF NOT EXISTS requests
         on delete cascade on update cascade
 );
 
+CREATE SEQUENCE IF NOT EXISTS item_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS items
 (
     id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -26,6 +32,7 @@ CREATE TABLE IF NOT EXISTS items
     is_available BOOLEAN                                 NOT NULL,
     owner_id     BIGINT                                  NOT NULL,
     request_id BIGINT,
+    comments_count INT DEFAULT 0                         NOT NULL,
     CONSTRAINT PK_ITEM PRIMARY KEY (id),
     CONSTRAINT FK_ITEM_OWNER FOREIGN KEY (owner_id) references users
         on delete cascade on update cascade,
@@ -33,6 +40,8 @@ CREATE TABLE IF NOT EXISTS items
         on delete cascade on update cascade
 );
 
+CREATE SEQUENCE IF NOT EXISTS booking_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS bookings
 (
     id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -41,6 +50,7 @@ CREATE TABLE IF NOT EXISTS bookings
     item_id    BIGINT                                  NOT NULL,
     booker_id  BIGINT                                  NOT NULL,
     status     VARCHAR(10)                             NOT NULL,
+    version    BIGINT        DEFAULT 0                 NOT NULL,
     CONSTRAINT PK_BOOKING PRIMARY KEY (id),
     CONSTRAINT FK_BOOKING_ITEM FOREIGN KEY (item_id) references items
         on delete cascade on update cascade,
@@ -48,6 +58,8 @@ CREATE TABLE IF NOT EXISTS bookings
         on delete cascade on update cascade
 );
 
+CREATE SEQUENCE IF NOT EXISTS comment_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS comments
 (
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -62,4 +74,44 @@ CREATE TABLE IF NOT EXISTS comments
         on delete cascade on update cascade
 );
 
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comments_count INT DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS schema_migrations
+(
+    id      VARCHAR(100)                NOT NULL,
+    applied TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT PK_SCHEMA_MIGRATION PRIMARY KEY (id)
+);
+
+UPDATE items SET comments_count = (SELECT count(*) FROM comments c WHERE c.item_id = items.id)
+WHERE NOT EXISTS (SELECT 1 FROM schema_migrations WHERE id = 'items_comments_count');
+
+INSERT INTO schema_migrations (id, applied)
+SELECT 'items_comments_count', CURRENT_TIMESTAMP
+WHERE NOT EXISTS (SELECT 1 FROM schema_migrations WHERE id = 'items_comments_count');
+
+DROP INDEX IF EXISTS IDX_REQUEST_REQUESTER_CREATED;
+
+CREATE INDEX IF NOT EXISTS IDX_REQUEST_REQUESTER_CREATED_ID ON requests (requester_id, created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS IDX_REQUEST_CREATED_ID ON requests (created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS IDX_ITEM_OWNER ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS IDX_ITEM_REQUEST ON items (request_id);
+
+DROP INDEX IF EXISTS IDX_BOOKING_BOOKER_START;
+
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_BOOKER_START_ID ON bookings (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_ITEM_START_ID ON bookings (item_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_ITEM_STATUS_START ON bookings (item_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_BOOKER_ITEM_STATUS_END ON bookings (booker_id, item_id, status, end_date);
+
+DROP INDEX IF EXISTS IDX_COMMENT_ITEM_CREATED;
 
+CREATE INDEX IF NOT EXISTS IDX_COMMENT_ITEM_CREATED_ID ON comments (item_id, created DESC, id DESC);
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.booking.dto.BookingPeriodView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingAvailabilityIndexTest {
+    private final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private BookingRepository bookingStorage;
+    private BookingAvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookingStorage = Mockito.mock(BookingRepository.class);
+        when(bookingStorage.findApprovedPeriodsByItemId(1L))
+                .thenReturn(List.of(period(1L, start, start.plusDays(1))));
+        availabilityIndex = new BookingAvailabilityIndex(bookingStorage, 1, Duration.ofHours(1));
+    }
+
+    @Test
+    void shouldLoadItemOnceAndAnswerFromMemory() {
+        assertThat(availabilityIndex.isBooked(1L, start.plusHours(1), start.plusHours(2))).isTrue();
+        assertThat(availabilityIndex.isBooked(1L, start.plusDays(1), start.plusDays(2))).isFalse();
+        assertThat(availabilityIndex.findBooked(1L, start.minusDays(1), start.plusDays(2))).hasSize(1);
+
+        verify(bookingStorage, times(1)).findApprovedPeriodsByItemId(1L);
+    }
+
+    @Test
+    void shouldAddApprovedBookingToLoadedItem() {
+        availabilityIndex.isBooked(1L, start, start.plusHours(1));
+
+        availabilityIndex.addApproved(1L, 2L, start.plusDays(2), start.plusDays(3));
+
+        assertThat(availabilityIndex.isBooked(1L, start.plusDays(2), start.plusDays(3))).isTrue();
+        verify(bookingStorage, times(1)).findApprovedPeriodsByItemId(1L);
+    }
+
+    @Test
+    void shouldReloadEvictedItem() {
+        availabilityIndex.isBooked(1L, start, start.plusHours(1));
+
+        availabilityIndex.evictItem(1L);
+        availabilityIndex.isBooked(1L, start, start.plusHours(1));
+
+        verify(bookingStorage, times(2)).findApprovedPeriodsByItemId(1L);
+    }
+
+    @Test
+    void shouldReloadItemPushedOutBySizeBound() {
+        availabilityIndex.isBooked(1L, start, start.plusHours(1));
+
+        availabilityIndex.isBooked(2L, start, start.plusHours(1));
+        availabilityIndex.isBooked(1L, start, start.plusHours(1));
+
+        verify(bookingStorage, times(2)).findApprovedPeriodsByItemId(1L);
+    }
+
+    @Test
+    void shouldReloadExpiredItem() {
+        availabilityIndex = new BookingAvailabilityIndex(bookingStorage, 10, Duration.ZERO);
+
+        availabilityIndex.isBooked(1L, start, start.plusHours(1));
+        availabilityIndex.isBooked(1L, start, start.plusHours(1));
+
+        verify(bookingStorage, times(2)).findApprovedPeriodsByItemId(1L);
+    }
+
+    private static BookingPeriodView period(long id, LocalDateTime start, LocalDateTime end) {
+        return new SpelAwareProxyProjectionFactory().createProjection(BookingPeriodView.class,
+                Map.of("id", id, "start", start, "end", end));
+    }
+}
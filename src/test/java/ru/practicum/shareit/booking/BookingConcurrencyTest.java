@@ -0,0 +1,172 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreateUpdateBookingDto;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.AlreadyExistedException;
+import ru.practicum.shareit.item.dto.CreateUpdateItemDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.CreateUpdateUserDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingConcurrencyTest {
+    private static final int THREADS = 4;
+
+    private final BookingService bookingService;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Test
+    void shouldApproveOnlyOneOfOverlappingBookings() throws InterruptedException {
+        UserDto owner = userService.createUser(CreateUpdateUserDto.builder()
+                .name("owner").email("owner@mail.ru").build());
+        UserDto booker = userService.createUser(CreateUpdateUserDto.builder()
+                .name("booker").email("booker@mail.ru").build());
+        ItemDto item = itemService.createItem(owner.getId(), CreateUpdateItemDto.builder()
+                .name("item").description("description").available(true).build());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookingIds.add(bookingService.createBooking(booker.getId(), CreateUpdateBookingDto.builder()
+                    .itemId(item.getId())
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i + THREADS))
+                    .build()).getId());
+        }
+
+        List<Callable<BookingDto>> approvals = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            approvals.add(() -> bookingService.confirmedBooking(owner.getId(), bookingId, true));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        int approved = 0;
+        int conflicts = 0;
+        try {
+            for (Future<BookingDto> result : executor.invokeAll(approvals)) {
+                try {
+                    result.get();
+                    approved++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(AlreadyExistedException.class);
+                    conflicts++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(approved).isEqualTo(1);
+        assertThat(conflicts).isEqualTo(THREADS - 1);
+        assertThat(bookingRepository.findAll())
+                .filteredOn(booking -> booking.getStatus() == Status.APPROVED)
+                .hasSize(1);
+    }
+
+    @Test
+    void shouldNotApproveBookingRejectedAfterItWasRead() throws Exception {
+        UserDto owner = userService.createUser(CreateUpdateUserDto.builder()
+                .name("owner").email("owner@mail.ru").build());
+        UserDto booker = userService.createUser(CreateUpdateUserDto.builder()
+                .name("booker").email("booker@mail.ru").build());
+        ItemDto item = itemService.createItem(owner.getId(), CreateUpdateItemDto.builder()
+                .name("item").description("description").available(true).build());
+        Long bookingId = bookingService.createBooking(booker.getId(), CreateUpdateBookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build()).getId();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertThrows(OptimisticLockingFailureException.class, () -> transactionTemplate.executeWithoutResult(tx -> {
+                bookingRepository.findById(bookingId).orElseThrow();
+                try {
+                    executor.submit(() -> bookingService.confirmedBooking(owner.getId(), bookingId, false)).get();
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+                bookingService.confirmedBooking(owner.getId(), bookingId, true);
+            }));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(bookingRepository.findStatusById(bookingId)).contains(Status.REJECTED);
+    }
+
+    @Test
+    void shouldNotBatchApproveBookingRejectedAfterItWasRead() throws Exception {
+        UserDto owner = userService.createUser(CreateUpdateUserDto.builder()
+                .name("owner").email("owner@mail.ru").build());
+        UserDto booker = userService.createUser(CreateUpdateUserDto.builder()
+                .name("booker").email("booker@mail.ru").build());
+        ItemDto item = itemService.createItem(owner.getId(), CreateUpdateItemDto.builder()
+                .name("item").description("description").available(true).build());
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            bookingIds.add(bookingService.createBooking(booker.getId(), CreateUpdateBookingDto.builder()
+                    .itemId(item.getId())
+                    .start(LocalDateTime.now().plusDays(i * 2 + 1))
+                    .end(LocalDateTime.now().plusDays(i * 2 + 2))
+                    .build()).getId());
+        }
+        Long rejectedId = bookingIds.get(0);
+        Long approvedId = bookingIds.get(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<BookingDecisionResultDto> results;
+        try {
+            results = transactionTemplate.execute(tx -> {
+                bookingRepository.findAllById(bookingIds);
+                try {
+                    executor.submit(() -> bookingService.confirmedBooking(owner.getId(), rejectedId, false)).get();
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+                return bookingService.confirmedBookings(owner.getId(), List.of(
+                        BookingDecisionDto.builder().bookingId(rejectedId).approved(true).build(),
+                        BookingDecisionDto.builder().bookingId(approvedId).approved(true).build()));
+            });
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(results).containsExactly(
+                new BookingDecisionResultDto(rejectedId, null, "Данные были изменены другим запросом, повторите попытку."),
+                new BookingDecisionResultDto(approvedId, Status.APPROVED, null));
+        assertThat(bookingRepository.findStatusById(rejectedId)).contains(Status.REJECTED);
+        assertThat(bookingRepository.findStatusById(approvedId)).contains(Status.APPROVED);
+    }
+}
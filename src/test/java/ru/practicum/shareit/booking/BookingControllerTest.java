@@ -8,10 +8,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateUpdateBookingDto;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.service.BookingExporter;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.GetBookingForItemDto;
 import ru.practicum.shareit.user.dto.GetBookingUserDto;
 
@@ -23,7 +30,9 @@ import java.util.List;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.util.Constant.REQUEST_HEADER_USER_ID;
 
@@ -39,6 +48,9 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private BookingExporter bookingExporter;
+
     private static GetBookingUserDto booker;
     private static CreateUpdateBookingDto createBookingDto;
     private static BookingDto getBookingDto;
@@ -157,6 +169,75 @@ class BookingControllerTest {
         verify(bookingService, times(1)).confirmedBooking(anyLong(), anyLong(), anyBoolean());
     }
 
+    @Test
+    void shouldConfirmBookingsInBatch() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(
+                BookingDecisionDto.builder().bookingId(1L).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(2L).approved(false).build());
+        when(bookingService.confirmedBookings(anyLong(), anyList()))
+                .thenReturn(List.of(new BookingDecisionResultDto(1L, Status.APPROVED, null),
+                        new BookingDecisionResultDto(2L, null, "Бронирование не найдено.")));
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header(REQUEST_HEADER_USER_ID, booker.getId())
+                        .content(objectMapper.writeValueAsString(decisions))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].bookingId").value(1L))
+                .andExpect(jsonPath("$[0].status").value(Status.APPROVED.toString()))
+                .andExpect(jsonPath("$[1].bookingId").value(2L))
+                .andExpect(jsonPath("$[1].error").value("Бронирование не найдено."));
+        verify(bookingService, times(1)).confirmedBookings(booker.getId(), decisions);
+    }
+
+    @Test
+    void shouldGetExceptionWithConfirmBookingsInBatchWithoutDecision() throws Exception {
+        mockMvc.perform(patch("/bookings/batch")
+                        .header(REQUEST_HEADER_USER_ID, booker.getId())
+                        .content("[{\"bookingId\": 1}]")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/bookings/batch")
+                        .header(REQUEST_HEADER_USER_ID, booker.getId())
+                        .content("[]")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).confirmedBookings(anyLong(), anyList());
+    }
+
+    @Test
+    void shouldExportBookingsOfBooker() throws Exception {
+        String line = objectMapper.writeValueAsString(getBookingDto);
+        when(bookingExporter.exportBookingsOfBooker(anyLong()))
+                .thenReturn(out -> out.write((line + "\n").getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mockMvc.perform(get("/bookings/export")
+                        .header(REQUEST_HEADER_USER_ID, booker.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(line + "\n"));
+        verify(bookingExporter, times(1)).exportBookingsOfBooker(booker.getId());
+    }
+
+    @Test
+    void shouldGetNotFoundWithExportBookingsOfUnknownOwner() throws Exception {
+        when(bookingExporter.exportBookingsOfOwner(anyLong()))
+                .thenThrow(new NotFoundException("User with id 1 not found"));
+
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header(REQUEST_HEADER_USER_ID, booker.getId()))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldGetExceptionWithGetBookingByUserOwnerWithoutHeader() throws Exception {
         mockMvc.perform(get("/bookings/1")
@@ -235,4 +316,47 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.[19].id").value(21L));
         verify(bookingService, times(1)).getBookingsOfOwner(any(), anyLong(), anyInt(), anyInt());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldGetUserBookingsAfterCursor() throws Exception {
+        when(bookingService.getBookingsOfBooker(any(), anyLong(), any(BookingCursor.class), anyInt()))
+                .thenReturn(listWith20Bookings.subList(0, 2));
+
+        mockMvc.perform(get("/bookings")
+                        .header(REQUEST_HEADER_USER_ID, booker.getId())
+                        .param("state", "past")
+                        .param("after", "2023-01-01T10:00:00,15")
+                        .param("size", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2));
+        verify(bookingService, times(1)).getBookingsOfBooker(State.PAST, booker.getId(),
+                new BookingCursor(LocalDateTime.of(2023, 1, 1, 10, 0), 15L), 2);
+        verify(bookingService, never()).getBookingsOfBooker(any(), anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldGetOwnerBookingsAfterCursor() throws Exception {
+        when(bookingService.getBookingsOfOwner(any(), anyLong(), any(BookingCursor.class), anyInt()))
+                .thenReturn(listWith20Bookings);
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(REQUEST_HEADER_USER_ID, booker.getId())
+                        .param("after", "2023-01-01T10:00:00.123,15")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(20));
+        verify(bookingService, times(1)).getBookingsOfOwner(State.ALL, booker.getId(),
+                new BookingCursor(LocalDateTime.of(2023, 1, 1, 10, 0, 0, 123_000_000), 15L), 20);
+    }
+
+    @Test
+    void shouldGetExceptionWithMalformedCursor() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header(REQUEST_HEADER_USER_ID, booker.getId())
+                        .param("after", "yesterday")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).getBookingsOfBooker(any(), anyLong(), any(BookingCursor.class), anyInt());
+    }
+}
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -8,12 +10,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateUpdateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.service.BookingExporter;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CreateUpdateItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.CreateUpdateUserDto;
@@ -21,7 +27,11 @@ import ru.practicum.shareit.user.service.UserService;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -33,6 +43,8 @@ import static org.hamcrest.Matchers.equalTo;
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class BookingIntegrationTest {
     private final BookingService bookingService;
+    private final BookingExporter bookingExporter;
+    private final ObjectMapper objectMapper;
     private final UserService userService;
     private final ItemService itemService;
     private final EntityManager entityManager;
@@ -98,6 +110,75 @@ public class BookingIntegrationTest {
         assertThat(Status.APPROVED, equalTo(booking.getStatus()));
     }
 
+    @Test
+    void shouldConfirmBookingsInBatch() {
+        userService.createUser(userDto);
+        userService.createUser(userDto2);
+        itemService.createItem(1L, itemDto);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.createBooking(2L, bookingDto.toBuilder().start(start).end(start.plusHours(2)).build());
+        bookingService.createBooking(2L, bookingDto.toBuilder().start(start.plusHours(1)).end(start.plusHours(3)).build());
+        bookingService.createBooking(2L, bookingDto.toBuilder().start(start.plusHours(5)).end(start.plusHours(6)).build());
+
+        List<BookingDecisionResultDto> results = bookingService.confirmedBookings(1L, List.of(
+                BookingDecisionDto.builder().bookingId(1L).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(2L).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(3L).approved(false).build(),
+                BookingDecisionDto.builder().bookingId(99L).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(1L).approved(false).build()));
+
+        Assertions.assertThat(results).containsExactly(
+                new BookingDecisionResultDto(1L, Status.APPROVED, null),
+                new BookingDecisionResultDto(2L, null, "Вещь уже забронирована на это время."),
+                new BookingDecisionResultDto(3L, Status.REJECTED, null),
+                new BookingDecisionResultDto(99L, null, "Бронирование не найдено."),
+                new BookingDecisionResultDto(1L, null, "Бронирование повторяется в запросе."));
+
+        TypedQuery<Status> query = entityManager.createQuery("select b.status from Booking b order by b.id", Status.class);
+        Assertions.assertThat(query.getResultList())
+                .containsExactly(Status.APPROVED, Status.WAITING, Status.REJECTED);
+
+        List<BookingDecisionResultDto> repeated = bookingService.confirmedBookings(1L, List.of(
+                BookingDecisionDto.builder().bookingId(1L).approved(false).build(),
+                BookingDecisionDto.builder().bookingId(3L).approved(true).build()));
+
+        Assertions.assertThat(repeated).containsExactly(
+                new BookingDecisionResultDto(1L, null, "Бронирование недоступно."),
+                new BookingDecisionResultDto(3L, Status.APPROVED, null));
+    }
+
+    @Test
+    void shouldExportBookingsOfBookerAndOwner() throws IOException {
+        userService.createUser(userDto);
+        userService.createUser(userDto2);
+        itemService.createItem(1L, itemDto);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 3; i++) {
+            bookingService.createBooking(2L, bookingDto.toBuilder()
+                    .start(start.plusDays(i)).end(start.plusDays(i).plusHours(1)).build());
+        }
+
+        ByteArrayOutputStream bookerExport = new ByteArrayOutputStream();
+        bookingExporter.exportBookingsOfBooker(2L).writeTo(bookerExport);
+        ByteArrayOutputStream ownerExport = new ByteArrayOutputStream();
+        bookingExporter.exportBookingsOfOwner(1L).writeTo(ownerExport);
+        ByteArrayOutputStream emptyExport = new ByteArrayOutputStream();
+        bookingExporter.exportBookingsOfOwner(2L).writeTo(emptyExport);
+
+        List<JsonNode> bookerBookings = new ArrayList<>();
+        for (String line : bookerExport.toString(StandardCharsets.UTF_8).split("\n")) {
+            bookerBookings.add(objectMapper.readTree(line));
+        }
+        Assertions.assertThat(bookerBookings)
+                .extracting(booking -> booking.get("id").asLong())
+                .containsExactly(3L, 2L, 1L);
+        Assertions.assertThat(bookerBookings.get(0).at("/item/name").asText()).isEqualTo(itemDto.getName());
+        Assertions.assertThat(ownerExport.toString(StandardCharsets.UTF_8)).isEqualTo(bookerExport.toString(StandardCharsets.UTF_8));
+        Assertions.assertThat(emptyExport.size()).isZero();
+        org.junit.jupiter.api.Assertions.assertThrows(NotFoundException.class,
+                () -> bookingExporter.exportBookingsOfBooker(99L));
+    }
+
     @Test
     void shouldGetBookingByUserOwner() {
         userService.createUser(userDto);
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.booking.BookingQueryPlanTest$RecordingInspector")
+public class BookingQueryPlanTest {
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    CommentRepository commentRepository;
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+    @Autowired
+    DataSource dataSource;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final Pageable pageable = PageRequest.of(1, 10);
+
+    @BeforeEach
+    void beforeEach() {
+        RecordingInspector.STATEMENTS.clear();
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void shouldUseIndexesForPagedQueries(State state) throws SQLException {
+        bookingRepository.findAllByBookerId(1L, state, now, pageable);
+        bookingRepository.findAllByOwnerId(1L, state, now, pageable);
+
+        assertNoTableScans();
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void shouldUseIndexesForSeekQueries(State state) throws SQLException {
+        BookingCursor cursor = new BookingCursor(now, 100L);
+        bookingRepository.findAllByBookerIdAfter(1L, state, now, cursor, 10);
+        bookingRepository.findAllByOwnerIdAfter(1L, state, now, cursor, 10);
+
+        assertNoTableScans();
+    }
+
+    @Test
+    void shouldUseIndexForCompletedRentalCheck() throws SQLException {
+        bookingRepository.existsCompletedRental(1L, 1L, now);
+
+        assertNoTableScans();
+    }
+
+    @Test
+    void shouldUseIndexesForItemPageQueries() throws SQLException {
+        bookingRepository.findLastAndNextApprovedByItemIdIn(List.of(1L, 2L), now);
+        itemRepository.findAllByOwnerId(1L, PageRequest.of(0, 10));
+        itemRepository.findAllByRequestId(1L);
+        itemRepository.findAllByRequestIdIn(List.of(1L, 2L));
+        commentRepository.findAllByItemId(1L, Sort.by(Sort.Direction.DESC, "created"));
+        commentRepository.findLatestByItemId(1L, PageRequest.of(0, 10));
+        commentRepository.findAllByItemIdAfter(1L, LocalDateTime.now(), 1, PageRequest.of(0, 10));
+        commentRepository.findLatestIdsByItemIdIn(List.of(1L, 2L), 10);
+        commentRepository.findAllByIdIn(List.of(1, 2));
+        itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(1L, PageRequest.of(0, 10));
+        itemRequestRepository.findAllByRequesterIdNot(1L, PageRequest.of(1, 10));
+        itemRequestRepository.findAllByRequesterIdNotAfter(1L, now, 100L, PageRequest.of(0, 10));
+
+        assertNoTableScans();
+    }
+
+    private void assertNoTableScans() throws SQLException {
+        List<String> statements = new ArrayList<>(RecordingInspector.STATEMENTS);
+        assertThat(statements).isNotEmpty();
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            for (String sql : statements) {
+                try (PreparedStatement explain = connection.prepareStatement("explain " + sql);
+                     ResultSet plan = explain.executeQuery()) {
+                    plan.next();
+                    assertThat(plan.getString(1)).as(sql).doesNotContainIgnoringCase("tableScan");
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
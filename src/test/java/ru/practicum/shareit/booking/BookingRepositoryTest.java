@@ -2,13 +2,17 @@ package ru.practicum.shareit.booking;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
@@ -17,7 +21,10 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 @DataJpaTest
@@ -29,6 +36,8 @@ public class BookingRepositoryTest {
     UserRepository userRepository;
     @Autowired
     ItemRepository itemRepository;
+    @Autowired
+    TestEntityManager entityManager;
 
     private User user1;
     private User user2;
@@ -40,10 +49,9 @@ public class BookingRepositoryTest {
     private Booking booking2;
     private Booking booking3;
     private Booking booking4;
-    LocalDateTime start = LocalDateTime.now();
-    LocalDateTime end = LocalDateTime.now().plusHours(1);
-    private static final Sort SORT_BY_START_BY_DESC = Sort.by(Sort.Direction.DESC, "start");
-    private Pageable pageable = PageRequest.of(0, 10, SORT_BY_START_BY_DESC);
+    LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    LocalDateTime end = start.plusHours(1);
+    private Pageable pageable = PageRequest.of(0, 10);
 
     @BeforeEach
     void beforeEach() {
@@ -74,67 +82,188 @@ public class BookingRepositoryTest {
 
     @Test
     void shouldGet2BookingWithFindAllByBookerId() {
-        assertEquals(2, bookingRepository.findAllByBookerId(2, pageable).size());
+        assertEquals(2, bookingRepository.findAllByBookerId(user2.getId(), State.ALL, LocalDateTime.now(), pageable).size());
     }
 
     @Test
-    void shouldGet2BookingWithFindAllByBookerIdAndStatus() {
-        assertEquals(2, bookingRepository.findAllByBookerIdAndStatus(2,Status.APPROVED, pageable).size());
+    void shouldGet1BookingWithFindAllByBookerIdAndStateWaiting() {
+        booking1.setStatus(Status.WAITING);
+        bookingRepository.save(booking1);
+
+        assertEquals(1, bookingRepository.findAllByBookerId(user2.getId(), State.WAITING, LocalDateTime.now(), pageable).size());
     }
 
     @Test
-    void shouldGet1BookingWithFindAllByBookerIdAndStartAfter() {
-        assertEquals(1, bookingRepository.findAllByBookerIdAndStartAfter(2, LocalDateTime.now(), pageable).size());
+    void shouldGet1BookingWithFindAllByBookerIdAndStateFuture() {
+        assertEquals(1, bookingRepository.findAllByBookerId(user2.getId(), State.FUTURE, LocalDateTime.now(), pageable).size());
     }
 
     @Test
-    void shouldGet1BookingWithFindAllByBookerIdAndEndBefore() {
-        assertEquals(1, bookingRepository.findAllByBookerIdAndEndBefore(2, LocalDateTime.now().plusHours(1), pageable).size());
+    void shouldGet1BookingWithFindAllByBookerIdAndStatePast() {
+        assertEquals(1, bookingRepository.findAllByBookerId(user2.getId(), State.PAST, LocalDateTime.now().plusHours(1), pageable).size());
     }
 
     @Test
     void shouldGet1WithFindAllByOwnerId() {
-        assertEquals(1, bookingRepository.findAllByOwnerId(2L, pageable).size());
+        assertEquals(1, bookingRepository.findAllByOwnerId(user2.getId(), State.ALL, LocalDateTime.now(), pageable).size());
     }
 
     @Test
-    void shouldGet1WithFindAllByOwnerIdAndStatus() {
-        assertEquals(1, bookingRepository.findAllByOwnerIdAndStatus(2L, Status.APPROVED, pageable).size());
+    void shouldGet1WithFindAllByOwnerIdAndStateRejected() {
+        booking4.setStatus(Status.REJECTED);
+        bookingRepository.save(booking4);
+
+        assertEquals(1, bookingRepository.findAllByOwnerId(user2.getId(), State.REJECTED, LocalDateTime.now(), pageable).size());
     }
 
     @Test
-    void shouldGet1WithFindAllByOwnerIdAndStartAfter() {
-        assertEquals(1, bookingRepository.findAllByOwnerIdAndStartAfter(2L, LocalDateTime.now(), pageable).size());
+    void shouldGet1WithFindAllByOwnerIdAndStateFuture() {
+        assertEquals(1, bookingRepository.findAllByOwnerId(user2.getId(), State.FUTURE, LocalDateTime.now(), pageable).size());
+    }
+
+    @Test
+    void shouldGet1WithFindAllByOwnerIdAndStatePast() {
+        assertEquals(1, bookingRepository.findAllByOwnerId(user2.getId(), State.PAST, LocalDateTime.now().plusHours(2), pageable).size());
+    }
+
+    @Test
+    void shouldGet0WithFindAllByOwnerIdAndStateCurrent() {
+        assertEquals(0, bookingRepository.findAllByOwnerId(user2.getId(), State.CURRENT, LocalDateTime.now(), pageable).size());
+    }
+
+    @Test
+    void shouldSkipOffsetWithFindAllByOwnerId() {
+        List<BookingDto> bookings = bookingRepository.findAllByOwnerId(user1.getId(), State.ALL, LocalDateTime.now(),
+                PageRequest.of(1, 2));
+
+        assertEquals(1, bookings.size());
+        assertEquals(booking1.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void shouldGet1WithFindAllByOwnerIdAndEndBefore() {
-        assertEquals(1, bookingRepository.findAllByOwnerIdAndEndBefore(2L, LocalDateTime.now().plusHours(2), pageable).size());
+    void shouldGetLastAndNextWithFindLastAndNextApprovedByItemIdIn() {
+        List<Booking> bookings = bookingRepository.findLastAndNextApprovedByItemIdIn(
+                List.of(item1.getId(), item2.getId()), start.plusMinutes(15));
+
+        assertEquals(3, bookings.size());
+        assertEquals(Set.of(booking1.getId(), booking2.getId(), booking3.getId()),
+                bookings.stream().map(Booking::getId).collect(Collectors.toSet()));
+
+        bookings = bookingRepository.findLastAndNextApprovedByItemIdIn(List.of(item2.getId()), start.minusMinutes(1));
+
+        assertEquals(1, bookings.size());
+        assertEquals(booking2.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void shouldGet1WithFindAllByOwnerIdAndStartBeforeAndEndAfter() {
-        assertEquals(0, bookingRepository.findAllByOwnerIdAndStartBeforeAndEndAfter(2L, LocalDateTime.now(), pageable).size());
+    void shouldSeekPagesWithFindAllByOwnerIdAfter() {
+        List<BookingDto> firstPage = bookingRepository.findAllByOwnerIdAfter(user1.getId(), State.ALL,
+                LocalDateTime.now(), null, 2);
+
+        assertEquals(List.of(booking3.getId(), booking2.getId()),
+                firstPage.stream().map(BookingDto::getId).collect(Collectors.toList()));
+
+        BookingDto last = firstPage.get(1);
+        List<BookingDto> secondPage = bookingRepository.findAllByOwnerIdAfter(user1.getId(), State.ALL,
+                LocalDateTime.now(), new BookingCursor(last.getStart(), last.getId()), 2);
+
+        assertEquals(List.of(booking1.getId()),
+                secondPage.stream().map(BookingDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldSeekPagesWithFindAllByBookerIdAfter() {
+        Booking sameStart = bookingRepository.save(booking2.toBuilder().id(null).build());
+
+        List<BookingDto> firstPage = bookingRepository.findAllByBookerIdAfter(user2.getId(), State.FUTURE,
+                start, null, 1);
+
+        assertEquals(List.of(sameStart.getId()),
+                firstPage.stream().map(BookingDto::getId).collect(Collectors.toList()));
+
+        List<BookingDto> secondPage = bookingRepository.findAllByBookerIdAfter(user2.getId(), State.FUTURE,
+                start, new BookingCursor(sameStart.getStart(), sameStart.getId()), 10);
+
+        assertEquals(List.of(booking2.getId()),
+                secondPage.stream().map(BookingDto::getId).collect(Collectors.toList()));
     }
 
     @Test
     void shouldGet1BookingWithFindAllByBookerIdAndStartBeforeAndEndAfter() {
         LocalDateTime testTime = start.plusMinutes(30);
-        List<Booking> bookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(user2.getId(), testTime,
+        List<BookingDto> bookings = bookingRepository.findAllByBookerId(user2.getId(), State.CURRENT, testTime,
                 pageable);
         List<Booking> bookingsAll = bookingRepository.findAll();
         assertEquals(4, bookingsAll.size());
         assertEquals(2, bookings.size());
         assertEquals(booking2.getItem().getName(), bookings.get(0).getItem().getName());
 
-        bookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(user2.getId(), testTime,
-                PageRequest.of(0, 1, SORT_BY_START_BY_DESC));
+        bookings = bookingRepository.findAllByBookerId(user2.getId(), State.CURRENT, testTime,
+                PageRequest.of(0, 1));
 
         assertEquals(1, bookings.size());
         assertEquals(booking2.getItem().getName(), bookings.get(0).getItem().getName());
-        bookings = bookingRepository.findAllByOwnerId(user1.getId(), pageable);
+        bookings = bookingRepository.findAllByOwnerId(user1.getId(), State.ALL, LocalDateTime.now(), pageable);
         assertEquals(3, bookings.size());
         assertEquals(booking3.getItem().getName(), bookings.get(0).getItem().getName());
         assertEquals(booking3.getId(), bookings.get(0).getId());
     }
+
+    @Test
+    void shouldFindApprovedOverlapWithExistsApprovedOverlap() {
+        assertEquals(true, bookingRepository.existsApprovedOverlap(item1.getId(),
+                start.plusMinutes(30), end.plusMinutes(30)));
+        assertEquals(true, bookingRepository.existsApprovedOverlap(item1.getId(),
+                start.minusMinutes(30), end.plusMinutes(30)));
+        assertEquals(false, bookingRepository.existsApprovedOverlap(item1.getId(), end, end.plusHours(1)));
+        assertEquals(false, bookingRepository.existsApprovedOverlap(item1.getId(), start.minusHours(1), start));
+
+        booking1.setStatus(Status.REJECTED);
+        bookingRepository.save(booking1);
+
+        assertEquals(false, bookingRepository.existsApprovedOverlap(item1.getId(),
+                start.plusMinutes(30), end.plusMinutes(30)));
+    }
+
+    @Test
+    void shouldFindCompletedRentalWithExistsCompletedRental() {
+        assertEquals(false, bookingRepository.existsCompletedRental(user2.getId(), item1.getId(), end));
+        assertEquals(false, bookingRepository.existsCompletedRental(user3.getId(), item1.getId(), end.plusMinutes(1)));
+
+        booking2.setStatus(Status.REJECTED);
+        bookingRepository.save(booking2);
+
+        assertEquals(false, bookingRepository.existsCompletedRental(user2.getId(), item2.getId(), end.plusHours(1)));
+        assertEquals(true, bookingRepository.existsCompletedRental(user2.getId(), item1.getId(), end.plusMinutes(1)));
+    }
+
+    @Test
+    void shouldUpdateOnlyReadVersionWithUpdateStatusIfVersion() {
+        booking1.setStatus(Status.WAITING);
+        bookingRepository.saveAndFlush(booking1);
+        Long version = bookingRepository.findById(booking1.getId()).orElseThrow().getVersion();
+
+        assertEquals(0, bookingRepository.updateStatusIfVersion(booking1.getId(), version + 1, Status.APPROVED));
+        assertEquals(1, bookingRepository.updateStatusIfVersion(booking1.getId(), version, Status.APPROVED));
+        assertEquals(0, bookingRepository.updateStatusIfVersion(booking1.getId(), version, Status.REJECTED));
+
+        assertEquals(Status.APPROVED, bookingRepository.findStatusById(booking1.getId()).orElseThrow());
+        assertEquals(version + 1, bookingRepository.findById(booking1.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void shouldReturnDtosWithoutLoadingEntitiesWithFindAllByOwnerId() {
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BookingDto> bookings = bookingRepository.findAllByOwnerId(user1.getId(), State.ALL, LocalDateTime.now(), pageable);
+
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+        assertEquals(3, bookings.size());
+        assertEquals(booking3.getId(), bookings.get(0).getId());
+        assertEquals(Status.APPROVED, bookings.get(0).getStatus());
+        assertEquals(user3.getId(), bookings.get(0).getBooker().getId());
+        assertEquals(item2.getId(), bookings.get(0).getItem().getId());
+        assertEquals(item2.getName(), bookings.get(0).getItem().getName());
+    }
 }
@@ -5,20 +5,28 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusView;
 import ru.practicum.shareit.booking.dto.CreateUpdateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.exception.AlreadyExistedException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ShareItValidationException;
 import ru.practicum.shareit.item.dto.GetBookingForItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.mapper.BookingMapper;
 import ru.practicum.shareit.user.dto.GetBookingUserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -27,17 +35,21 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class BookingServiceImplTest {
     private BookingService bookingService;
     private BookingRepository bookingStorage;
     private ItemRepository itemStorage;
+    private BookingAvailabilityIndex availabilityIndex;
     private UserRepository userStorage;
 
     private static User user;
@@ -50,6 +62,7 @@ class BookingServiceImplTest {
     private static Booking booking;
     private static GetBookingForItemDto itemDto;
     private static List<Booking> listOfBookings;
+    private static List<BookingDto> listOfBookingDtos;
 
     @BeforeAll
     static void beforeAll() {
@@ -94,6 +107,7 @@ class BookingServiceImplTest {
                 .booker(user2)
                 .status(Status.WAITING)
                 .item(item)
+                .version(0L)
                 .build();
 
         itemDto = GetBookingForItemDto.builder()
@@ -105,6 +119,9 @@ class BookingServiceImplTest {
         for (int i = 1; i < 21; i++) {
             listOfBookings.add(booking.toBuilder().id(i + 1L).build());
         }
+        listOfBookingDtos = listOfBookings.stream()
+                .map(BookingMapper::toBookingDtoFromBooking)
+                .collect(Collectors.toList());
     }
 
     @BeforeEach
@@ -112,14 +129,15 @@ class BookingServiceImplTest {
         bookingStorage = Mockito.mock(BookingRepository.class);
         itemStorage = Mockito.mock(ItemRepository.class);
         userStorage = Mockito.mock(UserRepository.class);
-        bookingService = new BookingServiceImpl(bookingStorage, userStorage, itemStorage);
+        availabilityIndex = Mockito.mock(BookingAvailabilityIndex.class);
+        bookingService = new BookingServiceImpl(bookingStorage, userStorage, itemStorage, availabilityIndex);
     }
 
     @Test
     void shouldCreateBooking() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.ofNullable(user));
-        when(itemStorage.findById(anyLong()))
+        when(itemStorage.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
         when(bookingStorage.save(any(Booking.class)))
                 .thenReturn(booking);
@@ -133,16 +151,16 @@ class BookingServiceImplTest {
                 .hasFieldOrPropertyWithValue("status", Status.WAITING)
                 .hasFieldOrPropertyWithValue("booker", booker)
                 .hasFieldOrPropertyWithValue("item", itemDto);
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(itemStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
+        verify(itemStorage, times(1)).findByIdForUpdate(anyLong());
         verify(bookingStorage, times(1)).save(any(Booking.class));
     }
 
     @Test
     void shouldGetExceptionCreateBookingNotFoundUser() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.empty());
-        when(itemStorage.findById(anyLong()))
+        when(itemStorage.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
         when(bookingStorage.save(any(Booking.class)))
                 .thenReturn(booking);
@@ -154,16 +172,16 @@ class BookingServiceImplTest {
 
         assertEquals("User with id 2 not found",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(itemStorage, never()).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
+        verify(itemStorage, never()).findByIdForUpdate(anyLong());
         verify(bookingStorage, never()).save(any(Booking.class));
     }
 
     @Test
     void shouldGetExceptionCreateBookingNotFoundItem() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.ofNullable(user));
-        when(itemStorage.findById(anyLong()))
+        when(itemStorage.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.empty());
         when(bookingStorage.save(any(Booking.class)))
                 .thenReturn(booking);
@@ -175,16 +193,16 @@ class BookingServiceImplTest {
 
         assertEquals("Item with id 1 not found",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(itemStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
+        verify(itemStorage, times(1)).findByIdForUpdate(anyLong());
         verify(bookingStorage, never()).save(any(Booking.class));
     }
 
     @Test
     void shouldGetExceptionCreateBookingNotAvailableException() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.ofNullable(user));
-        when(itemStorage.findById(anyLong()))
+        when(itemStorage.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.ofNullable(item.toBuilder().available(false).build()));
         when(bookingStorage.save(any(Booking.class)))
                 .thenReturn(booking);
@@ -196,16 +214,16 @@ class BookingServiceImplTest {
 
         assertEquals("Бронирование недоступно",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(itemStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
+        verify(itemStorage, times(1)).findByIdForUpdate(anyLong());
         verify(bookingStorage, never()).save(any(Booking.class));
     }
 
     @Test
     void shouldGetExceptionCreateBookingNotFoundSelfItem() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.ofNullable(user));
-        when(itemStorage.findById(anyLong()))
+        when(itemStorage.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
         when(bookingStorage.save(any(Booking.class)))
                 .thenReturn(booking);
@@ -217,19 +235,21 @@ class BookingServiceImplTest {
 
         assertEquals("Владелей вещи не может забронировать свою вещь.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(itemStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
+        verify(itemStorage, times(1)).findByIdForUpdate(anyLong());
         verify(bookingStorage, never()).save(any(Booking.class));
     }
 
     @Test
     void shouldApproveBooking() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(itemStorage.findByIdForUpdate(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
         when(bookingStorage.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking.toBuilder().build()));
-        when(bookingStorage.save(any(Booking.class)))
-                .thenReturn(booking.toBuilder().status(Status.APPROVED).build());
+        when(bookingStorage.updateStatusIfVersion(1L, 0L, Status.APPROVED))
+                .thenReturn(1);
 
         BookingDto getBookingDto = bookingService.confirmedBooking(1L, 1L, true);
 
@@ -240,19 +260,60 @@ class BookingServiceImplTest {
                 .hasFieldOrPropertyWithValue("status", Status.APPROVED)
                 .hasFieldOrPropertyWithValue("booker", booker)
                 .hasFieldOrPropertyWithValue("item", itemDto);
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(bookingStorage, times(1)).save(any(Booking.class));
+        verify(userStorage, times(1)).existsCachedById(anyLong());
+        verify(itemStorage, times(1)).findByIdForUpdate(1L);
+        verify(bookingStorage, times(1)).existsApprovedOverlap(1L, startTime, endTime);
+        verify(bookingStorage, times(1)).updateStatusIfVersion(1L, 0L, Status.APPROVED);
+        verify(bookingStorage, never()).save(any(Booking.class));
         verify(bookingStorage, times(1)).findById(anyLong());
     }
 
+    @Test
+    void shouldGetConflictWithApproveBookingOverlappingApproved() {
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(itemStorage.findByIdForUpdate(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingStorage.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(booking.toBuilder().build()));
+        when(bookingStorage.existsApprovedOverlap(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(true);
+
+        final AlreadyExistedException exception = Assertions.assertThrows(
+                AlreadyExistedException.class,
+                () -> bookingService.confirmedBooking(1L, 1L, true)
+        );
+
+        assertEquals("Вещь уже забронирована на это время.", exception.getMessage());
+        verify(bookingStorage, never()).updateStatusIfVersion(anyLong(), anyLong(), any(Status.class));
+    }
+
+    @Test
+    void shouldGetConflictCreateBookingOverlappingApproved() {
+        when(userStorage.findCachedById(anyLong()))
+                .thenReturn(Optional.ofNullable(user2));
+        when(itemStorage.findByIdForUpdate(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingStorage.existsApprovedOverlap(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(true);
+
+        final AlreadyExistedException exception = Assertions.assertThrows(
+                AlreadyExistedException.class,
+                () -> bookingService.createBooking(2L, bookingDto)
+        );
+
+        assertEquals("Вещь уже забронирована на это время.", exception.getMessage());
+        verify(bookingStorage, never()).updateStatusIfVersion(anyLong(), anyLong(), any(Status.class));
+    }
+
     @Test
     void shouldRejectBooking() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(bookingStorage.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking.toBuilder().build()));
-        when(bookingStorage.save(any(Booking.class)))
-                .thenReturn(booking.toBuilder().status(Status.REJECTED).build());
+        when(bookingStorage.updateStatusIfVersion(1L, 0L, Status.REJECTED))
+                .thenReturn(1);
 
         BookingDto getBookingDto = bookingService.confirmedBooking(1L, 1L, false);
 
@@ -263,19 +324,103 @@ class BookingServiceImplTest {
                 .hasFieldOrPropertyWithValue("status", Status.REJECTED)
                 .hasFieldOrPropertyWithValue("booker", booker)
                 .hasFieldOrPropertyWithValue("item", itemDto);
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(bookingStorage, times(1)).save(any(Booking.class));
+        verify(userStorage, times(1)).existsCachedById(anyLong());
+        verify(bookingStorage, times(1)).updateStatusIfVersion(1L, 0L, Status.REJECTED);
         verify(bookingStorage, times(1)).findById(anyLong());
     }
 
+    @Test
+    void shouldGetConflictWithApproveBookingRejectedConcurrently() {
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(itemStorage.findByIdForUpdate(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingStorage.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(booking.toBuilder().build()));
+        when(bookingStorage.updateStatusIfVersion(1L, 0L, Status.APPROVED))
+                .thenReturn(0);
+        when(bookingStorage.findStatusById(1L))
+                .thenReturn(Optional.of(Status.REJECTED));
+
+        Assertions.assertThrows(
+                OptimisticLockingFailureException.class,
+                () -> bookingService.confirmedBooking(1L, 1L, true)
+        );
+
+        verify(bookingStorage, times(1)).updateStatusIfVersion(anyLong(), anyLong(), any(Status.class));
+        verify(availabilityIndex, never()).addApproved(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void shouldGetExceptionWithRejectBookingApprovedConcurrently() {
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(booking.toBuilder().build()));
+        when(bookingStorage.updateStatusIfVersion(1L, 0L, Status.REJECTED))
+                .thenReturn(0);
+        when(bookingStorage.findStatusById(1L))
+                .thenReturn(Optional.of(Status.APPROVED));
+
+        final ShareItValidationException exception = Assertions.assertThrows(
+                ShareItValidationException.class,
+                () -> bookingService.confirmedBooking(1L, 1L, false)
+        );
+
+        assertEquals("Бронирование недоступно.", exception.getMessage());
+        verify(bookingStorage, times(1)).updateStatusIfVersion(anyLong(), anyLong(), any(Status.class));
+    }
+
+    @Test
+    void shouldReportBatchRejectionOfBookingApprovedConcurrently() {
+        BookingStatusView rejectedStatus = status(1L, Status.REJECTED, 1L);
+        BookingStatusView approvedStatus = status(2L, Status.APPROVED, 1L);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByIdInAndOwnerId(any(), eq(1L)))
+                .thenReturn(List.of(booking.toBuilder().build(), booking.toBuilder().id(2L).build()));
+        when(bookingStorage.updateStatusByIdInAndVersion(List.of(1L, 2L), 0L, Status.REJECTED))
+                .thenReturn(1);
+        when(bookingStorage.findStatusesByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(rejectedStatus, approvedStatus));
+
+        List<BookingDecisionResultDto> results = bookingService.confirmedBookings(1L, List.of(
+                BookingDecisionDto.builder().bookingId(1L).approved(false).build(),
+                BookingDecisionDto.builder().bookingId(2L).approved(false).build()));
+
+        assertThat(results).containsExactly(
+                new BookingDecisionResultDto(1L, Status.REJECTED, null),
+                new BookingDecisionResultDto(2L, null, "Бронирование недоступно."));
+        verify(itemStorage, never()).findAllByIdInForUpdate(any());
+        verify(bookingStorage, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void shouldReportBatchApprovalOfBookingRejectedConcurrently() {
+        BookingStatusView rejectedStatus = status(1L, Status.REJECTED, 1L);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByIdInAndOwnerId(any(), eq(1L)))
+                .thenReturn(List.of(booking.toBuilder().build()));
+        when(bookingStorage.updateStatusByIdInAndVersion(List.of(1L), 0L, Status.APPROVED))
+                .thenReturn(0);
+        when(bookingStorage.findStatusesByIdIn(List.of(1L)))
+                .thenReturn(List.of(rejectedStatus));
+
+        List<BookingDecisionResultDto> results = bookingService.confirmedBookings(1L, List.of(
+                BookingDecisionDto.builder().bookingId(1L).approved(true).build()));
+
+        assertThat(results).containsExactly(new BookingDecisionResultDto(1L, null,
+                "Данные были изменены другим запросом, повторите попытку."));
+        verify(availabilityIndex, never()).addApproved(anyLong(), anyLong(), any(), any());
+    }
+
     @Test
     void shouldGetExceptionWithApproveBookingNoFoundUser() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(false);
         when(bookingStorage.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking.toBuilder().build()));
-        when(bookingStorage.save(any(Booking.class)))
-                .thenReturn(booking);
 
         final NotFoundException exception = Assertions.assertThrows(
                 NotFoundException.class,
@@ -284,19 +429,17 @@ class BookingServiceImplTest {
 
         assertEquals("User with id 1 not found",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(bookingStorage, never()).save(any(Booking.class));
+        verify(userStorage, times(1)).existsCachedById(anyLong());
+        verify(bookingStorage, never()).updateStatusIfVersion(anyLong(), anyLong(), any(Status.class));
         verify(bookingStorage, never()).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithApproveBookingNoFoundBooking() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(bookingStorage.findById(anyLong()))
                 .thenReturn(Optional.empty());
-        when(bookingStorage.save(any(Booking.class)))
-                .thenReturn(booking);
 
         final NotFoundException exception = Assertions.assertThrows(
                 NotFoundException.class,
@@ -305,19 +448,17 @@ class BookingServiceImplTest {
 
         assertEquals("Нет данных о бронирование.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(bookingStorage, never()).save(any(Booking.class));
+        verify(userStorage, times(1)).existsCachedById(anyLong());
+        verify(bookingStorage, never()).updateStatusIfVersion(anyLong(), anyLong(), any(Status.class));
         verify(bookingStorage, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithApproveBookingNoFoundOwner() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user2));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(bookingStorage.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking.toBuilder().build()));
-        when(bookingStorage.save(any(Booking.class)))
-                .thenReturn(booking);
 
         final NotFoundException exception = Assertions.assertThrows(
                 NotFoundException.class,
@@ -326,19 +467,17 @@ class BookingServiceImplTest {
 
         assertEquals("Бронирование не найдено.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(bookingStorage, never()).save(any(Booking.class));
+        verify(userStorage, times(1)).existsCachedById(anyLong());
+        verify(bookingStorage, never()).updateStatusIfVersion(anyLong(), anyLong(), any(Status.class));
         verify(bookingStorage, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithApproveBookingNotAvailableAlreadyApproved() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(bookingStorage.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking.toBuilder().status(Status.APPROVED).build()));
-        when(bookingStorage.save(any(Booking.class)))
-                .thenReturn(booking);
 
         final ShareItValidationException exception = Assertions.assertThrows(
                 ShareItValidationException.class,
@@ -347,15 +486,15 @@ class BookingServiceImplTest {
 
         assertEquals("Бронирование недоступно.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(bookingStorage, never()).save(any(Booking.class));
+        verify(userStorage, times(1)).existsCachedById(anyLong());
+        verify(bookingStorage, never()).updateStatusIfVersion(anyLong(), anyLong(), any(Status.class));
         verify(bookingStorage, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetBookingByUserOwnerItem() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(bookingStorage.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking.toBuilder().build()));
 
@@ -368,14 +507,14 @@ class BookingServiceImplTest {
                 .hasFieldOrPropertyWithValue("status", Status.WAITING)
                 .hasFieldOrPropertyWithValue("booker", booker)
                 .hasFieldOrPropertyWithValue("item", itemDto);
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetBookingByUserOwnerBooking() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(bookingStorage.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking.toBuilder().build()));
 
@@ -388,14 +527,14 @@ class BookingServiceImplTest {
                 .hasFieldOrPropertyWithValue("status", Status.WAITING)
                 .hasFieldOrPropertyWithValue("booker", booker)
                 .hasFieldOrPropertyWithValue("item", itemDto);
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithGetBookingByUserOwnerNotFoundUser() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(false);
         when(bookingStorage.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking.toBuilder().build()));
 
@@ -406,14 +545,14 @@ class BookingServiceImplTest {
 
         assertEquals("User with id 1 not found",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, never()).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithGetBookingByUserOwnerNotFoundBooking() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(bookingStorage.findById(anyLong()))
                 .thenReturn(Optional.empty());
 
@@ -424,14 +563,14 @@ class BookingServiceImplTest {
 
         assertEquals("Нет данных о бронирование.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithGetBookingByUserOwnerNotFoundOwner() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(bookingStorage.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking.toBuilder().build()));
 
@@ -442,16 +581,16 @@ class BookingServiceImplTest {
 
         assertEquals("Бронирование не найдено",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetUserBookingsWithAll() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingStorage.findAllByBookerId(anyLong(), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByBookerId(anyLong(), eq(State.ALL), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         List<BookingDto> bookings = bookingService.getBookingsOfBooker(State.ALL, 1L, 7, 3);
 
@@ -459,16 +598,16 @@ class BookingServiceImplTest {
                 .isNotEmpty()
                 .hasSize(20)
                 .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(bookingStorage, times(1)).findAllByBookerId(anyLong(), any(Pageable.class));
+        verify(userStorage, times(1)).existsCachedById(anyLong());
+        verify(bookingStorage, times(1)).findAllByBookerId(anyLong(), eq(State.ALL), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void shouldGetExceptionWithGetUserBookingsWithAll() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.empty());
-        when(bookingStorage.findAllByBookerId(anyLong(), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(false);
+        when(bookingStorage.findAllByBookerId(anyLong(), eq(State.ALL), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         final NotFoundException exception = Assertions.assertThrows(
                 NotFoundException.class,
@@ -477,16 +616,16 @@ class BookingServiceImplTest {
 
         assertEquals("User with id 1 not found",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(bookingStorage, never()).findAllByBookerId(anyLong(), any(Pageable.class));
+        verify(userStorage, times(1)).existsCachedById(anyLong());
+        verify(bookingStorage, never()).findAllByBookerId(anyLong(), eq(State.ALL), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void shouldGetUserBookingsWithCurrent() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingStorage.findAllByBookerIdAndStartBeforeAndEndAfter(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByBookerId(anyLong(), eq(State.CURRENT), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         List<BookingDto> bookings = bookingService.getBookingsOfBooker(State.CURRENT, 1L, 7, 3);
 
@@ -494,20 +633,17 @@ class BookingServiceImplTest {
                 .isNotEmpty()
                 .hasSize(20)
                 .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, times(1))
-                .findAllByBookerIdAndStartBeforeAndEndAfter(
-                        anyLong(),
-                        any(LocalDateTime.class),
-                        any(Pageable.class));
+                .findAllByBookerId(anyLong(), eq(State.CURRENT), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void shouldGetUserBookingsWithPast() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingStorage.findAllByBookerIdAndEndBefore(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByBookerId(anyLong(), eq(State.PAST), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         List<BookingDto> bookings = bookingService.getBookingsOfBooker(State.PAST, 1L, 7, 3);
 
@@ -515,20 +651,17 @@ class BookingServiceImplTest {
                 .isNotEmpty()
                 .hasSize(20)
                 .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, times(1))
-                .findAllByBookerIdAndEndBefore(
-                        anyLong(),
-                        any(LocalDateTime.class),
-                        any(Pageable.class));
+                .findAllByBookerId(anyLong(), eq(State.PAST), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void shouldGetUserBookingsWithFuture() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingStorage.findAllByBookerIdAndStartAfter(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByBookerId(anyLong(), eq(State.FUTURE), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         List<BookingDto> bookings = bookingService.getBookingsOfBooker(State.FUTURE, 1L, 7, 3);
 
@@ -536,20 +669,17 @@ class BookingServiceImplTest {
                 .isNotEmpty()
                 .hasSize(20)
                 .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, times(1))
-                .findAllByBookerIdAndStartAfter(
-                        anyLong(),
-                        any(LocalDateTime.class),
-                        any(Pageable.class));
+                .findAllByBookerId(anyLong(), eq(State.FUTURE), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void shouldGetUserBookingsWithWaiting() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingStorage.findAllByBookerIdAndStatus(anyLong(), any(Status.class), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByBookerId(anyLong(), eq(State.WAITING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         List<BookingDto> bookings = bookingService.getBookingsOfBooker(State.WAITING, 1L, 7, 3);
 
@@ -557,20 +687,17 @@ class BookingServiceImplTest {
                 .isNotEmpty()
                 .hasSize(20)
                 .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, times(1))
-                .findAllByBookerIdAndStatus(
-                        anyLong(),
-                        any(Status.class),
-                        any(Pageable.class));
+                .findAllByBookerId(anyLong(), eq(State.WAITING), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void shouldGetUserBookingsWithReject() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingStorage.findAllByBookerIdAndStatus(anyLong(), any(Status.class), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByBookerId(anyLong(), eq(State.REJECTED), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         List<BookingDto> bookings = bookingService.getBookingsOfBooker(State.REJECTED, 1L, 7, 3);
 
@@ -578,20 +705,17 @@ class BookingServiceImplTest {
                 .isNotEmpty()
                 .hasSize(20)
                 .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, times(1))
-                .findAllByBookerIdAndStatus(
-                        anyLong(),
-                        any(Status.class),
-                        any(Pageable.class));
+                .findAllByBookerId(anyLong(), eq(State.REJECTED), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void shouldGetOwnerBookingsWithAll() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingStorage.findAllByOwnerId(anyLong(), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByOwnerId(anyLong(), eq(State.ALL), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         List<BookingDto> bookings = bookingService.getBookingsOfOwner(State.ALL, 1L, 7, 3);
 
@@ -599,16 +723,16 @@ class BookingServiceImplTest {
                 .isNotEmpty()
                 .hasSize(20)
                 .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(bookingStorage, times(1)).findAllByOwnerId(anyLong(), any(Pageable.class));
+        verify(userStorage, times(1)).existsCachedById(anyLong());
+        verify(bookingStorage, times(1)).findAllByOwnerId(anyLong(), eq(State.ALL), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void shouldGetExceptionWithGetOwnerBookingsWithAll() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.empty());
-        when(bookingStorage.findAllByOwnerId(anyLong(), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(false);
+        when(bookingStorage.findAllByOwnerId(anyLong(), eq(State.ALL), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         final NotFoundException exception = Assertions.assertThrows(
                 NotFoundException.class,
@@ -617,16 +741,16 @@ class BookingServiceImplTest {
 
         assertEquals("User with id 1 not found",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
-        verify(bookingStorage, never()).findAllByOwnerId(anyLong(), any(Pageable.class));
+        verify(userStorage, times(1)).existsCachedById(anyLong());
+        verify(bookingStorage, never()).findAllByOwnerId(anyLong(), eq(State.ALL), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void shouldGetOwnerBookingsWithCurrent() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingStorage.findAllByOwnerIdAndStartBeforeAndEndAfter(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByOwnerId(anyLong(), eq(State.CURRENT), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         List<BookingDto> bookings = bookingService.getBookingsOfOwner(State.CURRENT, 1L, 7, 3);
 
@@ -634,20 +758,17 @@ class BookingServiceImplTest {
                 .isNotEmpty()
                 .hasSize(20)
                 .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, times(1))
-                .findAllByOwnerIdAndStartBeforeAndEndAfter(
-                        anyLong(),
-                        any(LocalDateTime.class),
-                        any(Pageable.class));
+                .findAllByOwnerId(anyLong(), eq(State.CURRENT), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void shouldGetOwnerBookingsWithFuture() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingStorage.findAllByOwnerIdAndStartAfter(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByOwnerId(anyLong(), eq(State.FUTURE), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         List<BookingDto> bookings = bookingService.getBookingsOfOwner(State.FUTURE, 1L, 7, 3);
 
@@ -655,20 +776,17 @@ class BookingServiceImplTest {
                 .isNotEmpty()
                 .hasSize(20)
                 .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(bookingStorage, times(1))
-                .findAllByOwnerIdAndStartAfter(
-                        anyLong(),
-                        any(LocalDateTime.class),
-                        any(Pageable.class));
+                .findAllByOwnerId(anyLong(), eq(State.FUTURE), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void shouldGetOwnerBookingsWithWaiting() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingStorage.findAllByOwnerIdAndStatus(anyLong(), any(Status.class), any(Pageable.class)))
-                .thenReturn(listOfBookings);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByOwnerId(anyLong(), eq(State.WAITING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(listOfBookingDtos);
 
         List<BookingDto> bookings = bookingService.getBookingsOfOwner(State.WAITING, 1L, 7, 3);
 
@@ -676,10 +794,50 @@ class BookingServiceImplTest {
                 .isNotEmpty()
                 .hasSize(20)
                 .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
+        verify(bookingStorage, times(1))
+                .findAllByOwnerId(anyLong(), eq(State.WAITING), any(LocalDateTime.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldGetUserBookingsAfterCursor() {
+        BookingCursor cursor = new BookingCursor(startTime, 5L);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByBookerIdAfter(anyLong(), any(State.class), any(LocalDateTime.class),
+                any(BookingCursor.class), anyInt()))
+                .thenReturn(listOfBookingDtos);
+
+        List<BookingDto> bookings = bookingService.getBookingsOfBooker(State.WAITING, 1L, cursor, 3);
+
+        assertThat(bookings)
+                .hasSize(20)
+                .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
         verify(bookingStorage, times(1))
-                .findAllByOwnerIdAndStatus(anyLong(),
-                        any(Status.class),
-                        any(Pageable.class));
+                .findAllByBookerIdAfter(eq(1L), eq(State.WAITING), any(LocalDateTime.class), eq(cursor), eq(3));
+    }
+
+    @Test
+    void shouldGetOwnerBookingsAfterCursor() {
+        BookingCursor cursor = new BookingCursor(startTime, 5L);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(bookingStorage.findAllByOwnerIdAfter(anyLong(), any(State.class), any(LocalDateTime.class),
+                any(BookingCursor.class), anyInt()))
+                .thenReturn(listOfBookingDtos);
+
+        List<BookingDto> bookings = bookingService.getBookingsOfOwner(State.FUTURE, 1L, cursor, 3);
+
+        assertThat(bookings).hasSize(20);
+        verify(bookingStorage, times(1))
+                .findAllByOwnerIdAfter(eq(1L), eq(State.FUTURE), any(LocalDateTime.class), eq(cursor), eq(3));
+    }
+
+    private static BookingStatusView status(long id, Status status, long version) {
+        BookingStatusView view = mock(BookingStatusView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getStatus()).thenReturn(status);
+        when(view.getVersion()).thenReturn(version);
+        return view;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class MetricsConfigTest {
+    private final MockMvc mvc;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void shouldRecordStatementsPerRequest() throws Exception {
+        mvc.perform(post("/users")
+                        .content("{\"name\": \"user\", \"email\": \"user@mail.ru\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mvc.perform(get("/users/{userId}", 1L))
+                .andExpect(status().isOk());
+        mvc.perform(get("/users/{userId}", 1L))
+                .andExpect(status().isOk());
+
+        DistributionSummary getUser = meterRegistry.find(StatementCountInterceptor.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/users/{userId}")
+                .summary();
+        assertThat(getUser).isNotNull();
+        assertThat(getUser.count()).isEqualTo(2);
+        assertThat(getUser.max()).isEqualTo(1);
+        assertThat(getUser.totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTimeRepositoryInvocations() throws Exception {
+        mvc.perform(get("/users"))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "UserRepository")
+                .tag("method", "findAll")
+                .timer())
+                .isNotNull();
+    }
+
+    @Test
+    void shouldKeepCacheStatsReadOnly() throws Exception {
+        mvc.perform(delete("/actuator/caches"))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/actuator/metrics/cache.gets"))
+                .andExpect(status().isOk());
+    }
+}
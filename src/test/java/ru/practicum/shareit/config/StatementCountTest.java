@@ -0,0 +1,119 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.util.Constant.REQUEST_HEADER_USER_ID;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class StatementCountTest {
+    private static final int ITEMS = 10;
+
+    private final MockMvc mvc;
+    private final MeterRegistry meterRegistry;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final ItemSearchIndex itemSearchIndex;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@mail.ru").build());
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            User user = userRepository.save(User.builder().name("user" + i).email("user" + i + "@mail.ru").build());
+            ItemRequest request = itemRequestRepository.save(ItemRequest.builder()
+                    .description("Нужна дрель " + i)
+                    .requester(user)
+                    .created(now)
+                    .build());
+            items.add(Item.builder().name("Дрель " + i).description("Дрель владельца").available(true)
+                    .owner(owner).request(request).build());
+            items.add(Item.builder().name("Дрель " + i).description("Дрель соседа").available(true)
+                    .owner(user).build());
+        }
+        items = itemRepository.saveAll(items);
+        items.forEach(itemSearchIndex::index);
+
+        List<Booking> bookings = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            bookings.add(Booking.builder().item(item).booker(booker).status(Status.APPROVED)
+                    .start(now.minusDays(i + 2)).end(now.minusDays(i + 1)).build());
+            comments.add(Comment.builder().text("Отличная дрель").created(now).item(item)
+                    .author(i % 2 == 0 ? booker : item.getOwner()).build());
+        }
+        bookingRepository.saveAll(bookings);
+        commentRepository.saveAll(comments);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/bookings", "/bookings/owner", "/items", "/items/search?text=дрель", "/requests/all"})
+    void shouldIssueSameStatementsForAnyPageSize(String uri) throws Exception {
+        long userId = uri.equals("/bookings") ? booker.getId() : owner.getId();
+        statements(uri, userId, 1);
+
+        double small = statements(uri, userId, 2);
+        double large = statements(uri, userId, ITEMS);
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    private double statements(String uri, long userId, int size) throws Exception {
+        double before = total(uri);
+        mvc.perform(get(uri)
+                        .param("from", "0")
+                        .param("size", String.valueOf(size))
+                        .header(REQUEST_HEADER_USER_ID, userId))
+                .andExpect(status().isOk());
+        return total(uri) - before;
+    }
+
+    private double total(String uri) {
+        DistributionSummary summary = meterRegistry.find(StatementCountInterceptor.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", uri.split("\\?")[0])
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+}
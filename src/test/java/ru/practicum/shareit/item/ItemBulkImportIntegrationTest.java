@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.service.ItemBulkImporter;
+import ru.practicum.shareit.user.dto.CreateUpdateUserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ItemBulkImportIntegrationTest {
+    private final ItemBulkImporter itemBulkImporter;
+    private final UserService userService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldStopAndReportLinesOfChunkRejectedByDatabase() throws IOException {
+        long userId = userService.createUser(CreateUpdateUserDto.builder()
+                .name("user").email("user@ya.ru").build()).getId();
+        jdbcTemplate.execute("ALTER TABLE items ALTER COLUMN name VARCHAR(10)");
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1201; i++) {
+            String name = i == 700 ? "слишком длинное название" : "item" + i;
+            body.append("{\"name\": \"").append(name)
+                    .append("\", \"description\": \"description\", \"available\": true}\n");
+        }
+
+        ItemImportResultDto result = itemBulkImporter.importItems(userId,
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getImported()).isEqualTo(500);
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0).getLine()).isEqualTo(501L);
+        assertThat(result.getErrors().get(0).getError())
+                .isEqualTo("Строки 501-1000 не сохранены, импорт остановлен. Сохранено вещей: 500.");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM items", Long.class)).isEqualTo(500L);
+    }
+}
@@ -8,12 +8,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.BookedPeriodDto;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateCommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateItemDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.service.ItemBulkImporter;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -45,6 +52,9 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemBulkImporter itemBulkImporter;
+
     private static CreateUpdateItemDto correctItem;
     private static CreateUpdateCommentDto correctComment;
     private static ItemDto getItemDto;
@@ -81,6 +91,23 @@ class ItemControllerTest {
         }
     }
 
+    @Test
+    void shouldImportItems() throws Exception {
+        when(itemBulkImporter.importItems(anyLong(), any()))
+                .thenReturn(new ItemImportResultDto(1, List.of(new ItemImportErrorDto(2L, "Некорректный JSON."))));
+
+        mockMvc.perform(post("/items/bulk")
+                        .header(REQUEST_HEADER_USER_ID, 1L)
+                        .content("{\"name\": \"item\", \"description\": \"description\", \"available\": true}\n{")
+                        .contentType("application/x-ndjson")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].error").value("Некорректный JSON."));
+        verify(itemBulkImporter, times(1)).importItems(anyLong(), any());
+    }
+
     @Test
     void shouldGetExceptionWithCreateWithoutHeader() throws Exception {
         mockMvc.perform(post("/items")
@@ -252,4 +279,75 @@ class ItemControllerTest {
                 .andExpect(status().isOk());
         verify(itemService, times(1)).createComment(anyLong(), anyLong(), any(CreateUpdateCommentDto.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldGetAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        when(itemService.getAvailability(1L, 2L, from, to))
+                .thenReturn(ItemAvailabilityDto.builder()
+                        .itemId(2L)
+                        .from(from)
+                        .to(to)
+                        .available(false)
+                        .booked(List.of(BookedPeriodDto.builder()
+                                .start(from.plusDays(1))
+                                .end(from.plusDays(2))
+                                .build()))
+                        .build());
+
+        mockMvc.perform(get("/items/2/availability")
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-08T00:00:00")
+                        .header(REQUEST_HEADER_USER_ID, "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(false))
+                .andExpect(jsonPath("$.booked.size()").value(1))
+                .andExpect(jsonPath("$.booked[0].start").value("2030-01-02T00:00:00"));
+        verify(itemService, times(1)).getAvailability(1L, 2L, from, to);
+    }
+
+    @Test
+    void shouldGetExceptionWithAvailabilityWithoutPeriod() throws Exception {
+        mockMvc.perform(get("/items/2/availability")
+                        .header(REQUEST_HEADER_USER_ID, "1"))
+                .andExpect(status().isBadRequest());
+        verify(itemService, never()).getAvailability(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void shouldGetCommentsAfterCursor() throws Exception {
+        when(itemService.getComments(anyLong(), anyLong(), any(CommentCursor.class), anyInt()))
+                .thenReturn(List.of(getCommentDto));
+
+        mockMvc.perform(get("/items/2/comments")
+                        .header(REQUEST_HEADER_USER_ID, 1L)
+                        .param("after", "2030-01-01T00:00:00,7")
+                        .param("size", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1));
+        verify(itemService, times(1)).getComments(1L, 2L,
+                new CommentCursor(LocalDateTime.of(2030, 1, 1, 0, 0), 7L), 5);
+    }
+
+    @Test
+    void shouldGetExceptionWithMalformedCommentCursor() throws Exception {
+        mockMvc.perform(get("/items/2/comments")
+                        .header(REQUEST_HEADER_USER_ID, 1L)
+                        .param("after", "yesterday")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(itemService, never()).getComments(anyLong(), anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void shouldGetExceptionWithCommentCursorIdOutOfRange() throws Exception {
+        mockMvc.perform(get("/items/2/comments")
+                        .header(REQUEST_HEADER_USER_ID, 1L)
+                        .param("after", "2030-01-01T00:00:00,3000000000")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(itemService, never()).getComments(anyLong(), anyLong(), any(), anyInt());
+    }
+}
@@ -2,21 +2,36 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dto.CommentCursor;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CreateUpdateCommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemBulkImporter;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.CreateUpdateUserDto;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -29,6 +44,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class ItemIntegrationTest {
     private final ItemService itemService;
+    private final ItemBulkImporter itemBulkImporter;
     private final UserService userService;
     private final EntityManager entityManager;
 
@@ -173,4 +189,115 @@ public class ItemIntegrationTest {
                     Assertions.assertThat(list.get(1)).hasFieldOrPropertyWithValue("name", itemDto6.getName());
                 });
     }
+
+    @Test
+    void shouldImportItemsAndReportRowErrors() throws IOException {
+        userService.createUser(createUpdateUserDto);
+        String body = String.join("\n",
+                "{\"name\": \"Дрель\", \"description\": \"Простая дрель\", \"available\": true}",
+                "{\"name\": \"Пила\"",
+                "{\"description\": \"Без названия\", \"available\": true}",
+                "{\"name\": \"Отвертка\", \"description\": \"По запросу\", \"available\": true, \"requestId\": 99}",
+                "",
+                "{\"name\": \"Молоток\", \"description\": \"Тяжелый\", \"available\": false}");
+
+        ItemImportResultDto result = itemBulkImporter.importItems(1L,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        Assertions.assertThat(result.getImported()).isEqualTo(2);
+        Assertions.assertThat(result.getErrors())
+                .extracting(ItemImportErrorDto::getLine)
+                .containsExactly(2L, 3L, 4L);
+        Assertions.assertThat(result.getErrors().get(0).getError()).isEqualTo("Некорректный JSON.");
+        Assertions.assertThat(result.getErrors().get(1).getError()).startsWith("name: ");
+        Assertions.assertThat(result.getErrors().get(2).getError()).isEqualTo("Запрос не найден");
+
+        TypedQuery<String> query = entityManager.createQuery("select i.name from Item i order by i.id", String.class);
+        Assertions.assertThat(query.getResultList()).containsExactly("Дрель", "Молоток");
+    }
+
+    @Test
+    void shouldImportItemsInSeveralChunks() throws IOException {
+        userService.createUser(createUpdateUserDto);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1201; i++) {
+            body.append("{\"name\": \"item").append(i)
+                    .append("\", \"description\": \"description\", \"available\": true}\n");
+        }
+
+        ItemImportResultDto result = itemBulkImporter.importItems(1L,
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+
+        Assertions.assertThat(result.getImported()).isEqualTo(1201);
+        Assertions.assertThat(result.getErrors()).isEmpty();
+        Assertions.assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+        Assertions.assertThat(entityManager.createQuery("select count(i) from Item i", Long.class)
+                .getSingleResult()).isEqualTo(1201L);
+    }
+
+    @Test
+    void shouldEmbedLatestCommentsAndPageTheRest() {
+        long ownerId = userService.createUser(createUpdateUserDto).getId();
+        long bookerId = userService.createUser(createUpdateUserDto.toBuilder().email("booker@ya.ru").build()).getId();
+        long itemId = itemService.createItem(ownerId, createUpdateItemDto).getId();
+        entityManager.persist(Booking.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(entityManager.find(Item.class, itemId))
+                .booker(entityManager.find(User.class, bookerId))
+                .status(Status.APPROVED)
+                .build());
+        for (int i = 0; i < 12; i++) {
+            itemService.createComment(bookerId, itemId, CreateUpdateCommentDto.builder().text("comment " + i).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemDto item = itemService.getItemById(ownerId, itemId);
+
+        assertThat(item.getComments().size(), equalTo(10));
+        assertThat(item.getCommentsCount(), equalTo(12));
+
+        List<CommentDto> firstPage = itemService.getComments(ownerId, itemId, null, 5);
+        CommentDto last = firstPage.get(firstPage.size() - 1);
+        List<CommentDto> secondPage = itemService.getComments(ownerId, itemId,
+                new CommentCursor(last.getCreated(), last.getId()), 5);
+        last = secondPage.get(secondPage.size() - 1);
+        List<CommentDto> thirdPage = itemService.getComments(ownerId, itemId,
+                new CommentCursor(last.getCreated(), last.getId()), 5);
+
+        assertThat(firstPage.get(0).getText(), equalTo("comment 11"));
+        assertThat(secondPage.size(), equalTo(5));
+        assertThat(thirdPage.size(), equalTo(2));
+        assertThat(thirdPage.get(1).getText(), equalTo("comment 0"));
+    }
+
+    @Test
+    void shouldKeepCommentsCountWhenAuthorIsDeleted() {
+        long ownerId = userService.createUser(createUpdateUserDto).getId();
+        long itemId = itemService.createItem(ownerId, createUpdateItemDto).getId();
+        List<Long> authorIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            long authorId = userService.createUser(createUpdateUserDto.toBuilder()
+                    .email("author" + i + "@ya.ru").build()).getId();
+            entityManager.persist(Booking.builder()
+                    .start(LocalDateTime.now().minusDays(2))
+                    .end(LocalDateTime.now().minusDays(1))
+                    .item(entityManager.find(Item.class, itemId))
+                    .booker(entityManager.find(User.class, authorId))
+                    .status(Status.APPROVED)
+                    .build());
+            itemService.createComment(authorId, itemId, CreateUpdateCommentDto.builder().text("comment " + i).build());
+            authorIds.add(authorId);
+        }
+
+        userService.deleteUser(authorIds.get(0));
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemDto item = itemService.getItemById(ownerId, itemId);
+
+        assertThat(item.getCommentsCount(), equalTo(1));
+        assertThat(item.getComments().size(), equalTo(1));
+    }
 }
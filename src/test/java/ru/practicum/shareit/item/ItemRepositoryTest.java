@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
@@ -14,6 +15,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -82,6 +84,23 @@ class ItemRepositoryTest {
     void shouldFindAll() {
         assertEquals(5, itemRepository.findAll().size());
     }
+
+    @Test
+    void shouldSearchAvailableByNameOrDescriptionIgnoringCase() {
+        List<Item> items = itemRepository.search("%item%", PageRequest.of(0, 10));
+
+        assertEquals(List.of(item1.getId(), item3.getId(), item5.getId()),
+                items.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldSearchWithEscapedWildcard() {
+        itemRepository.save(Item.builder().name("100% cotton").description("Shirt").available(true)
+                .owner(user1).build());
+
+        assertEquals(1, itemRepository.search("%0\\%%", PageRequest.of(0, 10)).size());
+        assertEquals(0, itemRepository.search("%\\_%", PageRequest.of(0, 10)).size());
+    }
 }
 
 
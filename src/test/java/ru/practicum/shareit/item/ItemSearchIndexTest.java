@@ -0,0 +1,108 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.item.dto.ItemSearchView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+    private ItemRepository itemStorage;
+    private ItemSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        itemStorage = Mockito.mock(ItemRepository.class);
+        when(itemStorage.findAvailableForSearchIndex(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(
+                        view(1L, "Дрель", "Простая дрель"),
+                        view(2L, "Отвертка", "Аккумуляторная отвертка"),
+                        view(5L, "Клей Момент", "Тюбик суперклея марки Момент")));
+        searchIndex = new ItemSearchIndex(itemStorage, true);
+        searchIndex.build();
+    }
+
+    @Test
+    void shouldNotAnswerWhenDisabled() {
+        ItemRepository disabledStorage = Mockito.mock(ItemRepository.class);
+        ItemSearchIndex disabledIndex = new ItemSearchIndex(disabledStorage, false);
+        disabledIndex.build();
+
+        assertThat(disabledIndex.isReady()).isFalse();
+        assertThat(disabledIndex.search("дрель", 0, 10)).isEmpty();
+        verify(disabledStorage, never()).findAvailableForSearchIndex(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void shouldNotAnswerShortQueries() {
+        assertThat(searchIndex.search("др", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void shouldFindSubstringInNameOrDescriptionIgnoringCase() {
+        assertThat(searchIndex.search("ДРЕ", 0, 10)).isEqualTo(Optional.of(List.of(1L)));
+        assertThat(searchIndex.search("аккумулятор", 0, 10)).isEqualTo(Optional.of(List.of(2L)));
+        assertThat(searchIndex.search("от", 0, 10)).isEmpty();
+        assertThat(searchIndex.search("ОТВ", 0, 10)).isEqualTo(Optional.of(List.of(2L)));
+        assertThat(searchIndex.search("пила", 0, 10)).isEqualTo(Optional.of(List.of()));
+    }
+
+    @Test
+    void shouldVerifyCandidatesAgainstText() {
+        searchIndex.index(item(7L, "abcd xbcy", true));
+
+        assertThat(searchIndex.search("abcy", 0, 10)).isEqualTo(Optional.of(List.of()));
+        assertThat(searchIndex.search("xbcy", 0, 10)).isEqualTo(Optional.of(List.of(7L)));
+    }
+
+    @Test
+    void shouldPageResultsInIdOrder() {
+        searchIndex.index(item(3L, "Дрель ударная", true));
+        searchIndex.index(item(4L, "Дрель-шуруповерт", true));
+
+        assertThat(searchIndex.search("дрель", 0, 2)).isEqualTo(Optional.of(List.of(1L, 3L)));
+        assertThat(searchIndex.search("дрель", 2, 2)).isEqualTo(Optional.of(List.of(4L)));
+    }
+
+    @Test
+    void shouldUpdateIncrementally() {
+        searchIndex.index(item(1L, "Перфоратор", true));
+        searchIndex.index(item(2L, "Отвертка", false));
+        searchIndex.remove(5L);
+
+        assertThat(searchIndex.search("дрель", 0, 10)).isEqualTo(Optional.of(List.of()));
+        assertThat(searchIndex.search("перфоратор", 0, 10)).isEqualTo(Optional.of(List.of(1L)));
+        assertThat(searchIndex.search("отвертка", 0, 10)).isEqualTo(Optional.of(List.of()));
+        assertThat(searchIndex.search("момент", 0, 10)).isEqualTo(Optional.of(List.of()));
+    }
+
+    private static Item item(long id, String name, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(name)
+                .available(available)
+                .build();
+    }
+
+    private static ItemSearchView view(long id, String name, String description) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ItemSearchView.class,
+                Map.of("id", id, "name", name, "description", description));
+    }
+}
@@ -5,25 +5,36 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ShareItValidationException;
+import ru.practicum.shareit.item.dto.BookedPeriodDto;
+import ru.practicum.shareit.item.dto.CommentCursor;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateCommentDto;
 import ru.practicum.shareit.item.dto.CreateUpdateItemDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.IntervalTree;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -38,6 +49,9 @@ class ItemServiceImplTest {
     private UserRepository userStorage;
     private CommentRepository commentStorage;
     private ItemRequestRepository requestStorage;
+    private BookingRepository bookingStorage;
+    private ItemSearchIndex searchIndex;
+    private BookingAvailabilityIndex availabilityIndex;
 
     private static User user;
     private static ItemRequest request;
@@ -137,12 +151,16 @@ class ItemServiceImplTest {
         userStorage = Mockito.mock(UserRepository.class);
         commentStorage = Mockito.mock(CommentRepository.class);
         requestStorage = Mockito.mock(ItemRequestRepository.class);
-        itemService = new ItemServiceImpl(itemStorage, userStorage, commentStorage, requestStorage);
+        bookingStorage = Mockito.mock(BookingRepository.class);
+        searchIndex = Mockito.mock(ItemSearchIndex.class);
+        availabilityIndex = Mockito.mock(BookingAvailabilityIndex.class);
+        itemService = new ItemServiceImpl(itemStorage, userStorage, commentStorage, requestStorage, bookingStorage,
+                searchIndex, availabilityIndex, Mockito.mock(EntityManager.class));
     }
 
     @Test
     void shouldCreateItemWithRequest() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(user));
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.of(request));
@@ -160,7 +178,7 @@ class ItemServiceImplTest {
                 .hasFieldOrPropertyWithValue("requestId", 1L)
                 .hasFieldOrPropertyWithValue("lastBooking", null)
                 .hasFieldOrPropertyWithValue("nextBooking", null);
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
         verify(requestStorage, times(1)).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).save(any(Item.class));
@@ -168,7 +186,7 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetExceptionWithCreateWithNotFoundUser() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.empty());
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.of(request));
@@ -184,7 +202,7 @@ class ItemServiceImplTest {
 
         assertEquals("Пользоваетль не найден.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, never()).save(any(Item.class));
@@ -192,7 +210,7 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetExceptionWithCreateWithNotFoundRequest() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(user));
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.empty());
@@ -208,7 +226,7 @@ class ItemServiceImplTest {
 
         assertEquals("Запрос не найден",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
         verify(requestStorage, times(1)).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, never()).save(any(Item.class));
@@ -216,8 +234,8 @@ class ItemServiceImplTest {
 
     @Test
     void shouldUpdateItem() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(item.toBuilder().build()));
         when(itemStorage.save(any(Item.class)))
@@ -232,15 +250,15 @@ class ItemServiceImplTest {
                 .hasFieldOrPropertyWithValue("requestId", 1L)
                 .hasFieldOrPropertyWithValue("lastBooking", null)
                 .hasFieldOrPropertyWithValue("nextBooking", null);
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
         verify(itemStorage, times(1)).save(any(Item.class));
     }
 
     @Test
     void shouldGetExceptionWithUpdateItemWithNotFoundUser() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(false);
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentStorage.findById(anyLong()))
@@ -257,7 +275,7 @@ class ItemServiceImplTest {
 
         assertEquals("Такого пользователя нет.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, never()).findById(anyLong());
@@ -266,8 +284,8 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetExceptionWithUpdateItemWithNotFoundItem() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentStorage.findById(anyLong()))
@@ -284,7 +302,7 @@ class ItemServiceImplTest {
 
         assertEquals("Такого товара нет.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
@@ -293,8 +311,8 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetExceptionWithUpdateItemWithNotFoundOwner() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user.toBuilder().id(2L).build()));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentStorage.findById(anyLong()))
@@ -311,7 +329,7 @@ class ItemServiceImplTest {
 
         assertEquals("Такого товара нет.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
@@ -320,8 +338,8 @@ class ItemServiceImplTest {
 
     @Test
     void shouldDeleteItem() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentStorage.findById(anyLong()))
@@ -332,17 +350,18 @@ class ItemServiceImplTest {
 
         itemService.removeItem(user.getId(), item.getId());
 
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
         verify(itemStorage, times(1)).deleteById(anyLong());
+        verify(availabilityIndex, times(1)).evictItem(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithDeleteItemWithNotFoundUser() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(false);
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentStorage.findById(anyLong()))
@@ -358,7 +377,7 @@ class ItemServiceImplTest {
 
         assertEquals("Такого пользователя нет.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, never()).findById(anyLong());
@@ -367,8 +386,8 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetExceptionWithDeleteItemWithNotFoundItem() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentStorage.findById(anyLong()))
@@ -384,7 +403,7 @@ class ItemServiceImplTest {
 
         assertEquals("Такого товара нет.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
@@ -393,8 +412,8 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetExceptionWithDeleteItemWithNotFoundOwner() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user.toBuilder().id(2L).build()));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentStorage.findById(anyLong()))
@@ -410,7 +429,7 @@ class ItemServiceImplTest {
 
         assertEquals("Такого товара нет.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
@@ -419,29 +438,33 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetByIdByOwner() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(item.toBuilder().build()));
 
         itemService.getItemById(user.getId(), item.getId());
 
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
+        verify(bookingStorage, times(1)).findLastAndNextApprovedByItemIdIn(eq(List.of(item.getId())),
+                any(LocalDateTime.class));
     }
 
     @Test
     void shouldGetByIdByNotOwner() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user.toBuilder().id(2L).build()));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(item.toBuilder().build()));
 
         itemService.getItemById(2L, item.getId());
 
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(bookingStorage, never()).findLastAndNextApprovedByItemIdIn(anyCollection(), any(LocalDateTime.class));
+
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
@@ -449,8 +472,8 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetExceptionGetByIdByWithNotFoundUser() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(false);
         when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(item.toBuilder().build()));
 
@@ -461,7 +484,7 @@ class ItemServiceImplTest {
 
         assertEquals("Пользоваетль не найден.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, never()).findById(anyLong());
@@ -469,8 +492,8 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetExceptionGetByIdByWithNotFoundItem() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.empty());
 
@@ -481,7 +504,7 @@ class ItemServiceImplTest {
 
         assertEquals("Такого товара нет.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
@@ -489,8 +512,8 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetAllByUserIdByOwner() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(itemStorage.findAllByOwnerId(anyLong(), any(Pageable.class)))
                 .thenReturn(listOfItems);
 
@@ -504,15 +527,51 @@ class ItemServiceImplTest {
                     assertThat(list.get(0)).hasFieldOrPropertyWithValue("name", "itemName");
                     assertThat(list.get(0)).hasFieldOrPropertyWithValue("description", "itemDescription");
                 });
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findAllByOwnerId(anyLong(), any(Pageable.class));
+        verify(bookingStorage, times(1)).findLastAndNextApprovedByItemIdIn(anyCollection(), any(LocalDateTime.class));
+        verify(commentStorage, times(1)).findLatestIdsByItemIdIn(anyList(), eq(10));
+    }
+
+    @Test
+    void shouldGetAllByUserIdWithLastAndNextBookingsForWholePage() {
+        Item pastItem = item.toBuilder().id(2L).bookings(null).build();
+        Booking lastBooking = Booking.builder()
+                .id(10L)
+                .item(pastItem)
+                .booker(user)
+                .status(Status.APPROVED)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .build();
+        Booking nextBooking = lastBooking.toBuilder()
+                .id(11L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build();
+
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(itemStorage.findAllByOwnerId(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(pastItem, item.toBuilder().id(3L).bookings(null).build()));
+        when(bookingStorage.findLastAndNextApprovedByItemIdIn(anyCollection(), any(LocalDateTime.class)))
+                .thenReturn(List.of(lastBooking, nextBooking));
+
+        List<ItemDto> items = itemService.getAllItems(1L, 0, 10);
+
+        assertThat(items).hasSize(2);
+        assertEquals(10L, items.get(0).getLastBooking().getId());
+        assertEquals(11L, items.get(0).getNextBooking().getId());
+        assertThat(items.get(1).getLastBooking()).isNull();
+        assertThat(items.get(1).getNextBooking()).isNull();
+        verify(bookingStorage, times(1)).findLastAndNextApprovedByItemIdIn(eq(List.of(2L, 3L)), any(LocalDateTime.class));
     }
 
     @Test
     void shouldSearch() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(user));
         when(itemStorage.search(anyString(), any(Pageable.class)))
                 .thenReturn(listOfItems);
@@ -527,33 +586,55 @@ class ItemServiceImplTest {
                     assertThat(list.get(0)).hasFieldOrPropertyWithValue("name", "itemName");
                     assertThat(list.get(0)).hasFieldOrPropertyWithValue("description", "itemDescription");
                 });
-        verify(userStorage, never()).findById(anyLong());
+        verify(userStorage, never()).findCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
+        verify(commentStorage, times(1)).findLatestIdsByItemIdIn(anyList(), eq(10));
         verify(itemStorage, times(1)).search(anyString(), any(Pageable.class));
     }
 
+    @Test
+    void shouldSearchWithIndex() {
+        when(searchIndex.search(anyString(), anyLong(), anyInt()))
+                .thenReturn(Optional.of(List.of(3L, 2L)));
+        when(itemStorage.findAllById(anyIterable()))
+                .thenReturn(List.of(listOfItems.get(0), listOfItems.get(1)));
+
+        List<ItemDto> items = itemService.search("text", 6, 3);
+
+        assertThat(items)
+                .extracting(ItemDto::getId)
+                .containsExactly(3L, 2L);
+        verify(searchIndex, times(1)).search("text", 6L, 3);
+        verify(itemStorage, never()).search(anyString(), any(Pageable.class));
+    }
+
     @Test
     void shouldCreateComment() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(user));
         when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(item));
+        when(bookingStorage.existsCompletedRental(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(true);
         when(commentStorage.save(any(Comment.class)))
                 .thenReturn(comment);
 
         itemService.createComment(1L, 1L, createCommentDto);
 
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
+        verify(bookingStorage, times(1)).existsCompletedRental(eq(user.getId()), eq(item.getId()),
+                any(LocalDateTime.class));
         verify(commentStorage, times(1)).save(any(Comment.class));
+        verify(itemStorage, times(1)).incrementCommentsCount(item.getId());
     }
 
     @Test
     void shouldGetExceptionWithCreateCommentWithNotFoundUser() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.empty());
         when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(item));
@@ -567,7 +648,7 @@ class ItemServiceImplTest {
 
         assertEquals("Пользователь не найден.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, never()).findById(anyLong());
@@ -576,7 +657,7 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetExceptionWithCreateCommentWithNotFoundItem() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(user));
         when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.empty());
@@ -590,7 +671,7 @@ class ItemServiceImplTest {
 
         assertEquals("вещь не найдена.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
@@ -599,7 +680,7 @@ class ItemServiceImplTest {
 
     @Test
     void shouldGetExceptionWithCreateCommentWithNotFoundBooking() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(user.toBuilder().id(2L).build()));
         when(itemStorage.findById(anyLong()))
                 .thenReturn(Optional.of(item));
@@ -613,10 +694,98 @@ class ItemServiceImplTest {
 
         assertEquals("Пользователь с ID = 2 не брал в аренду вещь с ID = 1",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
         verify(commentStorage, never()).findById(anyLong());
         verify(itemStorage, times(1)).findById(anyLong());
         verify(commentStorage, never()).save(any(Comment.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldGetCommentsAfterCursor() {
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(itemStorage.existsById(anyLong()))
+                .thenReturn(true);
+        when(commentStorage.findAllByItemIdAfter(anyLong(), any(LocalDateTime.class), anyInt(), any(Pageable.class)))
+                .thenReturn(List.of(comment));
+
+        List<CommentDto> comments = itemService.getComments(1L, 1L, new CommentCursor(created, 7L), 5);
+
+        assertThat(comments)
+                .hasSize(1)
+                .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("text", "comment"));
+        verify(commentStorage, times(1)).findAllByItemIdAfter(1L, created, 7, PageRequest.of(0, 5));
+        verify(commentStorage, never()).findLatestByItemId(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void shouldGetExceptionWithGetCommentsWithNotFoundItem() {
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(itemStorage.existsById(anyLong()))
+                .thenReturn(false);
+
+        final NotFoundException exception = Assertions.assertThrows(
+                NotFoundException.class,
+                () -> itemService.getComments(1L, 1L, null, 5)
+        );
+
+        assertEquals("Такого товара нет.", exception.getMessage());
+        verify(commentStorage, never()).findLatestByItemId(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void shouldGetAvailability() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(itemStorage.existsById(anyLong()))
+                .thenReturn(true);
+        when(availabilityIndex.findBooked(1L, from, to))
+                .thenReturn(List.of(new IntervalTree.Interval(5L, from.plusDays(1), from.plusDays(2))));
+
+        ItemAvailabilityDto availability = itemService.getAvailability(1L, 1L, from, to);
+
+        assertThat(availability)
+                .hasFieldOrPropertyWithValue("itemId", 1L)
+                .hasFieldOrPropertyWithValue("available", false);
+        assertThat(availability.getBooked())
+                .containsExactly(BookedPeriodDto.builder().start(from.plusDays(1)).end(from.plusDays(2)).build());
+    }
+
+    @Test
+    void shouldGetExceptionWithAvailabilityNotFoundItem() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(itemStorage.existsById(anyLong()))
+                .thenReturn(false);
+
+        final NotFoundException exception = Assertions.assertThrows(
+                NotFoundException.class,
+                () -> itemService.getAvailability(1L, 1L, from, from.plusDays(1))
+        );
+
+        assertEquals("Такого товара нет.", exception.getMessage());
+        verify(availabilityIndex, never()).findBooked(anyLong(), any(), any());
+    }
+
+    @Test
+    void shouldGetExceptionWithAvailabilityWrongPeriod() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(itemStorage.existsById(anyLong()))
+                .thenReturn(true);
+
+        final ShareItValidationException exception = Assertions.assertThrows(
+                ShareItValidationException.class,
+                () -> itemService.getAvailability(1L, 1L, from, from)
+        );
+
+        assertEquals("Неправильный период.", exception.getMessage());
+    }
+}
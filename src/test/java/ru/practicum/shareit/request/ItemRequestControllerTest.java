@@ -8,16 +8,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.CreateUpdateItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -25,6 +29,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.util.Constant.REQUEST_HEADER_USER_ID;
 
@@ -213,6 +218,33 @@ class ItemRequestControllerTest {
         verify(requestService, times(1)).getUserRequestsById(anyLong(), anyInt(), anyInt());
     }
 
+    @Test
+    void shouldGetAllRequestsAfterCursor() throws Exception {
+        when(requestService.getUserRequestsById(anyLong(), any(ItemRequestCursor.class), anyInt()))
+                .thenReturn(listOfRequests.subList(0, 5));
+
+        mockMvc.perform(get("/requests/all")
+                        .header(REQUEST_HEADER_USER_ID, "1")
+                        .param("after", "2023-01-01T10:00:00,15")
+                        .param("size", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(5));
+        verify(requestService, times(1)).getUserRequestsById(1L,
+                new ItemRequestCursor(LocalDateTime.of(2023, 1, 1, 10, 0), 15L), 5);
+        verify(requestService, never()).getUserRequestsById(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldGetExceptionWithGetAllRequestsWithMalformedCursor() throws Exception {
+        mockMvc.perform(get("/requests/all")
+                        .header(REQUEST_HEADER_USER_ID, "1")
+                        .param("after", "2023-01-01T10:00:00")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(requestService, never()).getUserRequestsById(anyLong(), any(ItemRequestCursor.class), anyInt());
+    }
+
     @Test
     void shouldExceptionWithGetRequestByIdWithRequestWithoutHeader() throws Exception {
         when(requestService.getItemRequestById(anyLong(), anyLong()))
@@ -224,6 +256,15 @@ class ItemRequestControllerTest {
         verify(requestService, never()).getItemRequestById(anyLong(), anyLong());
     }
 
+    @Test
+    void shouldSubscribeToNewRequests() throws Exception {
+        mockMvc.perform(get("/requests/all/stream")
+                        .header(REQUEST_HEADER_USER_ID, "1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        verify(requestService, times(1)).subscribe(eq(1L), any(SseEmitter.class));
+    }
+
     @Test
     void shouldGetRequestById() throws Exception {
         when(requestService.getItemRequestById(anyLong(), anyLong()))
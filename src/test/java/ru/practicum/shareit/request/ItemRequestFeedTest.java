@@ -0,0 +1,130 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestFeed;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemRequestFeedTest {
+    private final List<Runnable> pendingSends = new ArrayList<>();
+    private ItemRequestFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new ItemRequestFeed(pendingSends::add, 2, Duration.ofHours(1));
+    }
+
+    @Test
+    void shouldSendNewRequestsToOtherUsers() {
+        RecordingEmitter owner = new RecordingEmitter();
+        RecordingEmitter requester = new RecordingEmitter();
+        feed.subscribe(1L, owner);
+        feed.subscribe(2L, requester);
+
+        feed.publish(2L, request(10L));
+        feed.publish(2L, request(11L));
+        runPendingSends();
+
+        assertThat(owner.events).hasSize(2);
+        assertThat(owner.events.get(0)).contains("id:10", "event:request");
+        assertThat(requester.events).isEmpty();
+    }
+
+    @Test
+    void shouldDisconnectSubscriberWhenBufferIsFull() {
+        RecordingEmitter slow = new RecordingEmitter();
+        feed.subscribe(1L, slow);
+
+        feed.publish(2L, request(10L));
+        feed.publish(2L, request(11L));
+        feed.publish(2L, request(12L));
+
+        assertThat(slow.completed).isTrue();
+        assertThat(feed.getSubscriberCount()).isZero();
+
+        RecordingEmitter reconnected = new RecordingEmitter();
+        feed.subscribe(1L, reconnected);
+        pendingSends.clear();
+        feed.publish(2L, request(13L));
+        runPendingSends();
+
+        assertThat(reconnected.events).hasSize(1);
+    }
+
+    @Test
+    void shouldDropSubscriberWhenSendFails() {
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.failing = true;
+        feed.subscribe(1L, broken);
+
+        feed.publish(2L, request(10L));
+        runPendingSends();
+
+        assertThat(feed.getSubscriberCount()).isZero();
+        assertThat(broken.completed).isTrue();
+    }
+
+    @Test
+    void shouldFindDeadSubscriberWithHeartbeat() {
+        RecordingEmitter alive = new RecordingEmitter();
+        RecordingEmitter dead = new RecordingEmitter();
+        dead.failing = true;
+        feed.subscribe(1L, alive);
+        feed.subscribe(3L, dead);
+
+        feed.heartbeat();
+        runPendingSends();
+
+        assertThat(alive.events).containsExactly(":heartbeat\n\n");
+        assertThat(dead.completed).isTrue();
+        assertThat(feed.getSubscriberCount()).isEqualTo(1);
+    }
+
+    private void runPendingSends() {
+        List<Runnable> sends = new ArrayList<>(pendingSends);
+        pendingSends.clear();
+        sends.forEach(Runnable::run);
+    }
+
+    private static ItemRequestDto request(long id) {
+        return ItemRequestDto.builder()
+                .id(id)
+                .description("Нужна дрель")
+                .items(List.of())
+                .build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private boolean failing;
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.request;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.request.dto.CreateUpdateItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.CreateUpdateUserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.util.Constant.REQUEST_HEADER_USER_ID;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ItemRequestIntegrationTest {
+    private final MockMvc mvc;
+    private final UserService userService;
+    private final ItemRequestService itemRequestService;
+    private final HikariDataSource dataSource;
+
+    @Test
+    void shouldStreamRequestsOfOtherUsersAfterCommit() throws Exception {
+        long ownerId = userService.createUser(CreateUpdateUserDto.builder()
+                .name("owner").email("owner@ya.ru").build()).getId();
+        long requesterId = userService.createUser(CreateUpdateUserDto.builder()
+                .name("requester").email("requester@ya.ru").build()).getId();
+        MvcResult stream = mvc.perform(get("/requests/all/stream")
+                        .header(REQUEST_HEADER_USER_ID, ownerId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        itemRequestService.add(CreateUpdateItemRequestDto.builder().description("Нужна своя дрель").build(), ownerId);
+        ItemRequestDto request = itemRequestService.add(CreateUpdateItemRequestDto.builder()
+                .description("Нужна дрель").build(), requesterId);
+
+        String content = awaitContent(stream, "Нужна дрель");
+        assertThat(content)
+                .contains("id:" + request.getId(), "event:request")
+                .doesNotContain("Нужна своя дрель");
+    }
+
+    @Test
+    void shouldNotHoldConnectionsForOpenStreams() throws Exception {
+        long ownerId = userService.createUser(CreateUpdateUserDto.builder()
+                .name("owner").email("owner@ya.ru").build()).getId();
+
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(get("/requests/all/stream")
+                            .header(REQUEST_HEADER_USER_ID, ownerId)
+                            .accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncStarted());
+        }
+        mvc.perform(get("/requests/all")
+                        .header(REQUEST_HEADER_USER_ID, ownerId))
+                .andExpect(status().isOk());
+
+        assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isZero();
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+}
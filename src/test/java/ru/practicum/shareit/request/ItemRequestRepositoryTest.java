@@ -76,4 +76,41 @@ class ItemRequestRepositoryTest {
         assertEquals(itemRequest3.getDescription(), itemRequests.get(0).getDescription());
         assertEquals(4, itemRequestRepository.findAll().size());
     }
+
+    @Test
+    void shouldFindAllByRequesterIdNotAfterCursor() {
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 10, 0);
+        ItemRequest first = itemRequestRepository.save(ItemRequest.builder()
+                .description("description5").requester(user2).created(created).build());
+        ItemRequest second = itemRequestRepository.save(ItemRequest.builder()
+                .description("description6").requester(user2).created(created).build());
+        ItemRequest older = itemRequestRepository.save(ItemRequest.builder()
+                .description("description7").requester(user2).created(created.minusDays(1)).build());
+
+        List<ItemRequest> firstPage = itemRequestRepository.findAllByRequesterIdNot(user1.getId(),
+                PageRequest.of(0, 2));
+        ItemRequest last = firstPage.get(firstPage.size() - 1);
+        List<ItemRequest> secondPage = itemRequestRepository.findAllByRequesterIdNotAfter(user1.getId(),
+                last.getCreated(), last.getId(), PageRequest.of(0, 2));
+
+        assertEquals(List.of(second.getId(), first.getId()),
+                List.of(firstPage.get(0).getId(), firstPage.get(1).getId()));
+        assertEquals(List.of(older.getId(), itemRequest3.getId()),
+                List.of(secondPage.get(0).getId(), secondPage.get(1).getId()));
+    }
+
+    @Test
+    void shouldFindAllByRequesterIdOrderByCreatedDescWithIdOnTie() {
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 10, 0);
+        ItemRequest first = itemRequestRepository.save(ItemRequest.builder()
+                .description("description5").requester(user2).created(created).build());
+        ItemRequest second = itemRequestRepository.save(ItemRequest.builder()
+                .description("description6").requester(user2).created(created).build());
+
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(user2.getId(),
+                PageRequest.of(0, 2));
+
+        assertEquals(List.of(second.getId(), first.getId()),
+                List.of(itemRequests.get(0).getId(), itemRequests.get(1).getId()));
+    }
 }
@@ -5,13 +5,20 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.CreateUpdateItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestFeed;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.user.model.User;
@@ -25,6 +32,8 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -32,6 +41,8 @@ class ItemRequestServiceImplTest {
     private ItemRequestService requestService;
     private UserRepository userStorage;
     private ItemRepository itemStorage;
+    private CommentRepository commentStorage;
+    private ItemRequestFeed requestFeed;
     private ItemRequestRepository requestStorage;
 
     private static User user;
@@ -73,12 +84,15 @@ class ItemRequestServiceImplTest {
         userStorage = Mockito.mock(UserRepository.class);
         requestStorage = Mockito.mock(ItemRequestRepository.class);
         itemStorage = Mockito.mock(ItemRepository.class);
-        requestService = new ItemRequestServiceImpl(requestStorage, userStorage, itemStorage);
+        commentStorage = Mockito.mock(CommentRepository.class);
+        requestFeed = Mockito.mock(ItemRequestFeed.class);
+        requestService = new ItemRequestServiceImpl(requestStorage, userStorage, itemStorage, commentStorage,
+                requestFeed);
     }
 
     @Test
     void shouldCreateRequest() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.of(user));
         when(requestStorage.save(any(ItemRequest.class)))
                 .thenReturn(request);
@@ -90,13 +104,28 @@ class ItemRequestServiceImplTest {
                 .hasFieldOrPropertyWithValue("description", requestDto.getDescription())
                 .hasFieldOrProperty("created")
                 .hasFieldOrPropertyWithValue("items", new ArrayList<>());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
         verify(requestStorage, times(1)).save(any(ItemRequest.class));
+        verify(requestFeed, times(1)).publish(user.getId(), getItemRequestDto);
+    }
+
+    @Test
+    void shouldGetExceptionWithSubscribeNotFoundUser() {
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(false);
+
+        final NotFoundException exception = Assertions.assertThrows(
+                NotFoundException.class,
+                () -> requestService.subscribe(user.getId(), new SseEmitter())
+        );
+
+        assertEquals("Пользоваетль не найден.", exception.getMessage());
+        verify(requestFeed, never()).subscribe(anyLong(), any(SseEmitter.class));
     }
 
     @Test
     void shouldGetExceptionWithCreateRequestNotFoundUser() {
-        when(userStorage.findById(anyLong()))
+        when(userStorage.findCachedById(anyLong()))
                 .thenReturn(Optional.empty());
         when(requestStorage.save(any(ItemRequest.class)))
                 .thenReturn(request);
@@ -108,14 +137,15 @@ class ItemRequestServiceImplTest {
 
         assertEquals("Пользоваетль не найден.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).findCachedById(anyLong());
         verify(requestStorage, never()).save(any(ItemRequest.class));
+        verify(requestFeed, never()).publish(anyLong(), any(ItemRequestDto.class));
     }
 
     @Test
     void shouldGetRequestById() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(request));
 
@@ -126,14 +156,14 @@ class ItemRequestServiceImplTest {
                 .hasFieldOrPropertyWithValue("description", requestDto.getDescription())
                 .hasFieldOrProperty("created")
                 .hasFieldOrPropertyWithValue("items", new ArrayList<>());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithRequestByIdNotFoundUser() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(false);
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(request));
 
@@ -144,14 +174,14 @@ class ItemRequestServiceImplTest {
 
         assertEquals("Пользоваетль не найден.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithRequestByIdNotFoundRequest() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(requestStorage.findById(anyLong()))
                 .thenReturn(Optional.empty());
 
@@ -162,14 +192,14 @@ class ItemRequestServiceImplTest {
 
         assertEquals("Запрос не найден.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetAllRequestsByUserId() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(requestStorage.findAllByRequesterIdOrderByCreatedDesc(anyLong(), any(Pageable.class)))
                 .thenReturn(listOfRequests);
 
@@ -182,14 +212,56 @@ class ItemRequestServiceImplTest {
                         .hasFieldOrPropertyWithValue("description", requestDto.getDescription())
                         .hasFieldOrProperty("created")
                         .hasFieldOrPropertyWithValue("items", new ArrayList<>()));
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, times(1)).findAllByRequesterIdOrderByCreatedDesc(anyLong(), any(Pageable.class));
     }
 
+    @Test
+    void shouldGetAllRequestsWithItemsAndCommentsInBatches() {
+        ItemRequest second = request.toBuilder().id(2L).build();
+        Item item = Item.builder()
+                .id(5L)
+                .name("itemName")
+                .description("itemDescription")
+                .available(true)
+                .owner(user)
+                .request(second)
+                .build();
+        Comment comment = Comment.builder()
+                .id(7)
+                .text("comment")
+                .author(user)
+                .item(item)
+                .created(currentTime)
+                .build();
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(requestStorage.findAllByRequesterIdNot(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(request, second));
+        when(itemStorage.findAllByRequestIdIn(anyList()))
+                .thenReturn(List.of(item));
+        when(commentStorage.findLatestIdsByItemIdIn(anyList(), anyInt()))
+                .thenReturn(List.of(7));
+        when(commentStorage.findAllByIdIn(anyList()))
+                .thenReturn(List.of(comment));
+
+        List<ItemRequestDto> requests = requestService.getUserRequestsById(user.getId(), 0, 20);
+
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0).getItems()).isEmpty();
+        assertThat(requests.get(1).getItems())
+                .hasSize(1)
+                .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 5L)
+                        .satisfies(itemDto -> assertThat(itemDto.getComments()).hasSize(1)));
+        verify(itemStorage, times(1)).findAllByRequestIdIn(List.of(1L, 2L));
+        verify(commentStorage, times(1)).findLatestIdsByItemIdIn(List.of(5L), 10);
+        verify(commentStorage, times(1)).findAllByIdIn(List.of(7));
+    }
+
     @Test
     void shouldGetExceptionWithGetAllRequestsByUserIdNotFoundUser() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(false);
         when(requestStorage.findAllByRequesterIdOrderByCreatedDesc(anyLong(), any(Pageable.class)))
                 .thenReturn(listOfRequests);
 
@@ -200,14 +272,14 @@ class ItemRequestServiceImplTest {
 
         assertEquals("Пользоваетль не найден.",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findAllByRequesterIdOrderByCreatedDesc(anyLong(), any(Pageable.class));
     }
 
     @Test
     void shouldGetAllRequests() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
         when(requestStorage.findAllByRequesterIdNot(anyLong(), any(Pageable.class)))
                 .thenReturn(listOfRequests);
 
@@ -220,14 +292,33 @@ class ItemRequestServiceImplTest {
                         .hasFieldOrPropertyWithValue("description", requestDto.getDescription())
                         .hasFieldOrProperty("created")
                         .hasFieldOrPropertyWithValue("items", new ArrayList<>()));
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, times(1)).findAllByRequesterIdNot(anyLong(), any(Pageable.class));
     }
 
+    @Test
+    void shouldGetAllRequestsAfterCursor() {
+        ItemRequestCursor cursor = new ItemRequestCursor(currentTime, 30L);
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(true);
+        when(requestStorage.findAllByRequesterIdNotAfter(anyLong(), any(LocalDateTime.class), anyLong(),
+                any(Pageable.class)))
+                .thenReturn(listOfRequests.subList(0, 3));
+
+        List<ItemRequestDto> requests = requestService.getUserRequestsById(user.getId(), cursor, 3);
+
+        assertThat(requests)
+                .hasSize(3)
+                .satisfies(list -> assertThat(list.get(0)).hasFieldOrPropertyWithValue("id", 2L));
+        verify(requestStorage, times(1)).findAllByRequesterIdNotAfter(user.getId(), currentTime, 30L,
+                PageRequest.of(0, 3));
+        verify(requestStorage, never()).findAllByRequesterIdNot(anyLong(), any(Pageable.class));
+    }
+
     @Test
     void shouldGetExceptionWithGetAllRequestsNotFoundUser() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userStorage.existsCachedById(anyLong()))
+                .thenReturn(false);
         when(requestStorage.findAllByRequesterIdNot(anyLong(), any(Pageable.class)))
                 .thenReturn(listOfRequests);
 
@@ -238,7 +329,7 @@ class ItemRequestServiceImplTest {
 
         assertEquals("Пользователь не найден",
                 exception.getMessage());
-        verify(userStorage, times(1)).findById(anyLong());
+        verify(userStorage, times(1)).existsCachedById(anyLong());
         verify(requestStorage, never()).findAllByRequesterIdNot(anyLong(), any(Pageable.class));
     }
 }
\ No newline at end of file
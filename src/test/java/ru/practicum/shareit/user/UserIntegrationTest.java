@@ -5,11 +5,15 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.user.dto.CreateUpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.persistence.EntityManager;
@@ -28,6 +32,8 @@ import static org.hamcrest.Matchers.equalTo;
 public class UserIntegrationTest {
     private final UserService userService;
     private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+    private final UserRepository userRepository;
 
     private static CreateUpdateUserDto createUpdateUserDto;
 
@@ -85,6 +91,41 @@ public class UserIntegrationTest {
         assertThat(createUpdateUserDto.getEmail(), equalTo(user.getEmail()));
     }
 
+    @Test
+    void shouldEvictCachedUserOnUpdateAndDelete() {
+        userService.createUser(createUpdateUserDto);
+        Cache users = cacheManager.getCache(CacheConfig.USERS_CACHE);
+
+        userService.getUserById(1L);
+        assertThat(users.get(1L)).isNotNull();
+
+        userService.updateUser(1L, CreateUpdateUserDto.builder().name("newName").build());
+        assertThat(users.get(1L)).isNull();
+        assertThat(userService.getUserById(1L).getName(), equalTo("newName"));
+        assertThat(users.get(1L)).isNotNull();
+
+        userService.deleteUser(1L);
+        assertThat(users.get(1L)).isNull();
+    }
+
+    @Test
+    void shouldCacheOnlyExistingUserIds() {
+        Cache userIds = cacheManager.getCache(CacheConfig.USER_IDS_CACHE);
+
+        assertThat(userRepository.existsCachedById(1L), equalTo(false));
+        assertThat(userIds.get(1L)).isNull();
+
+        userService.createUser(createUpdateUserDto);
+
+        assertThat(userRepository.existsCachedById(1L), equalTo(true));
+        assertThat(userIds.get(1L)).isNotNull();
+
+        userService.deleteUser(1L);
+
+        assertThat(userIds.get(1L)).isNull();
+        assertThat(userRepository.existsCachedById(1L), equalTo(false));
+    }
+
     @Test
     void shouldGetAll() {
         CreateUpdateUserDto userDto2 = createUpdateUserDto.toBuilder().email("mail2@ya.ru").build();
@@ -6,8 +6,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
 import ru.practicum.shareit.exception.AlreadyExistedException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.dto.CreateUpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -28,6 +30,7 @@ import static org.mockito.Mockito.*;
 class UserServiceImplTest {
     private static UserService userService;
     private static UserRepository userRepository;
+    private static ItemRepository itemRepository;
     private static CreateUpdateUserDto createUserDto;
     private static CreateUpdateUserDto updateNameUserDto;
     private static CreateUpdateUserDto updateEmailUserDto;
@@ -71,12 +74,13 @@ class UserServiceImplTest {
     @BeforeEach
     void setUp() {
         userRepository = Mockito.mock(UserRepository.class);
-        userService = new UserServiceImpl(userRepository);
+        itemRepository = Mockito.mock(ItemRepository.class);
+        userService = new UserServiceImpl(userRepository, itemRepository, Mockito.mock(BookingAvailabilityIndex.class));
     }
 
     @Test
     void shouldCreateUser() {
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenReturn(getUser.toBuilder().build());
 
         UserDto userDto = userService.createUser(createUserDto);
@@ -85,12 +89,12 @@ class UserServiceImplTest {
                 .hasFieldOrPropertyWithValue("id", getUserDto.getId())
                 .hasFieldOrPropertyWithValue("name", getUserDto.getName())
                 .hasFieldOrPropertyWithValue("email", getUserDto.getEmail());
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
     }
 
     @Test
     void shouldGetAlreadyExistsExceptionCreateUser() {
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenThrow(new DataIntegrityViolationException("error"));
 
         final AlreadyExistedException exception = Assertions.assertThrows(
@@ -100,7 +104,7 @@ class UserServiceImplTest {
 
         assertEquals(String.format("Пользователь с %s уже зарегистрирован", createUserDto.getEmail()),
                 exception.getMessage());
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -190,12 +194,13 @@ class UserServiceImplTest {
 
         userService.deleteUser(1L);
 
+        verify(itemRepository, times(1)).subtractCommentsOfAuthor(1L);
         verify(userRepository, times(1)).delete(any(User.class));
     }
 
     @Test
     void shouldGetExceptionGetById() {
-        when(userRepository.findById(anyLong()))
+        when(userRepository.findCachedById(anyLong()))
                 .thenReturn(Optional.empty());
 
         final NotFoundException exception = Assertions.assertThrows(
@@ -205,12 +210,12 @@ class UserServiceImplTest {
 
         assertEquals("Такого пользователя нет.",
                 exception.getMessage());
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).findCachedById(anyLong());
     }
 
     @Test
     void shouldGetById() {
-        when(userRepository.findById(anyLong()))
+        when(userRepository.findCachedById(anyLong()))
                 .thenReturn(Optional.of(getUser.toBuilder().build()));
 
         UserDto userDto = userService.getUserById(1L);
@@ -219,7 +224,7 @@ class UserServiceImplTest {
                 .hasFieldOrPropertyWithValue("id", getUserDto.getId())
                 .hasFieldOrPropertyWithValue("name", getUserDto.getName())
                 .hasFieldOrPropertyWithValue("email", getUserDto.getEmail());
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userRepository, times(1)).findCachedById(anyLong());
     }
 
     @Test
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTest {
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void shouldTreatIntervalsAsHalfOpen() {
+        IntervalTree tree = new IntervalTree();
+        tree.add(1L, at(10), at(20));
+
+        assertThat(tree.overlaps(at(0), at(10))).isFalse();
+        assertThat(tree.overlaps(at(20), at(30))).isFalse();
+        assertThat(tree.overlaps(at(19), at(30))).isTrue();
+        assertThat(tree.overlaps(at(12), at(15))).isTrue();
+        assertThat(tree.overlaps(at(0), at(40))).isTrue();
+    }
+
+    @Test
+    void shouldIgnoreDuplicates() {
+        IntervalTree tree = new IntervalTree();
+
+        assertThat(tree.add(1L, at(10), at(20))).isTrue();
+        assertThat(tree.add(1L, at(10), at(20))).isFalse();
+        assertThat(tree.add(2L, at(10), at(20))).isTrue();
+        assertThat(tree.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMatchBruteForce() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<IntervalTree.Interval> intervals = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            int start = random.nextInt(100_000);
+            LocalDateTime end = at(start + 1 + random.nextInt(200));
+            tree.add(id, at(start), end);
+            intervals.add(new IntervalTree.Interval(id, at(start), end));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(100_000);
+            LocalDateTime to = at(from + 1 + random.nextInt(500));
+            List<IntervalTree.Interval> expected = intervals.stream()
+                    .filter(interval -> interval.getStart().isBefore(to) && interval.getEnd().isAfter(at(from)))
+                    .sorted(Comparator.comparing(IntervalTree.Interval::getStart)
+                            .thenComparingLong(IntervalTree.Interval::getId))
+                    .collect(Collectors.toList());
+
+            assertThat(tree.find(at(from), to)).isEqualTo(expected);
+            assertThat(tree.overlaps(at(from), to)).isEqualTo(!expected.isEmpty());
+        }
+    }
+
+    private LocalDateTime at(int minutes) {
+        return base.plusMinutes(minutes);
+    }
+}